@@ -0,0 +1,124 @@
+package com.example.android.newsapp_2;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import com.example.android.newsapp_2.core.News;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures and lays out the news_item layout and the flat {@link NewsRowView} with the same
+ * News and compares their cost per pass. The result is written to logcat, run on a device
+ * with ./gradlew connectedAndroidTest and filter the log by the tag of this class.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowMeasureBenchmark {
+
+    private static final String LOG_TAG = RowMeasureBenchmark.class.getSimpleName();
+
+    private static final int WARMUP_PASSES = 200;
+    private static final int PASSES = 2000;
+    private static final int LIST_WIDTH_DP = 360;
+
+    private static final News NEWS = new News(
+            "Football transfer news: the latest rumours from the final days of the window",
+            "Football", 1528557414000L, "Jane Doe",
+            "https://www.theguardian.com/football/2018/jun/09/transfer-news",
+            "https://media.guim.co.uk/thumbnail.jpg");
+
+    private Context context;
+    private int widthSpec;
+    private int heightSpec;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.setTheme(R.style.AppTheme);
+        int listWidth = Math.round(LIST_WIDTH_DP
+                * context.getResources().getDisplayMetrics().density);
+        widthSpec = View.MeasureSpec.makeMeasureSpec(listWidth, View.MeasureSpec.EXACTLY);
+        heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+    }
+
+    @Test
+    public void flatRow_hasHeightOfLayout() {
+        View layoutRow = bindLayoutRow();
+        NewsRowView flatRow = bindFlatRow();
+
+        layoutRow.measure(widthSpec, heightSpec);
+        flatRow.measure(widthSpec, heightSpec);
+
+        assertEquals(layoutRow.getMeasuredHeight(), flatRow.getMeasuredHeight());
+    }
+
+    @Test
+    public void measureLayoutRowAndFlatRow() {
+        long layoutNanos = nanosPerPass(bindLayoutRow());
+        long flatNanos = nanosPerPass(bindFlatRow());
+
+        Log.i(LOG_TAG, "news_item: " + layoutNanos + " ns, NewsRowView: " + flatNanos
+                + " ns per measure and layout");
+        assertTrue(layoutNanos > 0 && flatNanos > 0);
+    }
+
+    //Return the average time of a measure and layout pass which is forced like after a bind.
+    //The texts don't change, so both rows keep their text layouts and only the measuring of
+    //the views is compared.
+    private long nanosPerPass(View row) {
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            pass(row);
+        }
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < PASSES; i++) {
+            pass(row);
+        }
+        return (SystemClock.elapsedRealtimeNanos() - start) / PASSES;
+    }
+
+    private void pass(View row) {
+        forceLayout(row);
+        row.measure(widthSpec, heightSpec);
+        row.layout(0, 0, row.getMeasuredWidth(), row.getMeasuredHeight());
+    }
+
+    //Mark the row and all its children for a new measure, like the texts of a bind do.
+    private static void forceLayout(View view) {
+        view.forceLayout();
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                forceLayout(group.getChildAt(i));
+            }
+        }
+    }
+
+    private View bindLayoutRow() {
+        View row = LayoutInflater.from(context)
+                .inflate(R.layout.news_item, new FrameLayout(context), false);
+        ((TextView) row.findViewById(R.id.title)).setText(NEWS.getTitle());
+        ((TextView) row.findViewById(R.id.section)).setText(NEWS.getSection());
+        ((TextView) row.findViewById(R.id.date)).setText("09.06.2018 \n15:16");
+        ((TextView) row.findViewById(R.id.author)).setText(NEWS.getAuthor());
+        return row;
+    }
+
+    private NewsRowView bindFlatRow() {
+        NewsRowView row = new NewsRowView(context);
+        row.bind(NEWS, "09.06.2018 \n15:16", null);
+        return row;
+    }
+}
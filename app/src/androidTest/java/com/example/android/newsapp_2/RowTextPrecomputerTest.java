@@ -0,0 +1,185 @@
+package com.example.android.newsapp_2;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import com.example.android.newsapp_2.core.News;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the {@link RowTextPrecomputer} lays out the texts for the widths of a measured
+ * news_item row and that the {@link RowPool} hands out the rows it inflated in the background.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowTextPrecomputerTest {
+
+    private static final int LIST_WIDTH_DP = 360;
+    private static final long INFLATE_TIMEOUT_SECONDS = 5;
+
+    private static final News NEWS_WITH_THUMBNAIL = new News(
+            "Football transfer news: the latest rumours from the final days of the window",
+            "Football", 1528557414000L, "Jane Doe",
+            "https://www.theguardian.com/football/2018/jun/09/transfer-news",
+            "https://media.guim.co.uk/thumbnail.jpg");
+    private static final News NEWS_WITHOUT_THUMBNAIL = new News(
+            "Election results", "Politics", 1528557414000L, "",
+            "https://www.theguardian.com/politics/2018/jun/09/election-results");
+
+    //Runs the layouts on the calling thread, so they are ready when precompute returns.
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private Context context;
+    private int listWidth;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.setTheme(R.style.AppTheme);
+        listWidth = Math.round(LIST_WIDTH_DP
+                * context.getResources().getDisplayMetrics().density);
+    }
+
+    @Test
+    public void precompute_laysOutTextsForTheWidthsOfTheRow() {
+        RowTextPrecomputer precomputer = new RowTextPrecomputer(DIRECT_EXECUTOR);
+        View row = inflateRow();
+        TextView title = row.findViewById(R.id.title);
+        setTemplate(precomputer, row);
+
+        precomputer.precompute(Arrays.asList(NEWS_WITH_THUMBNAIL, NEWS_WITHOUT_THUMBNAIL));
+
+        RowTextPrecomputer.RowText withThumbnail = precomputer.get(NEWS_WITH_THUMBNAIL);
+        RowTextPrecomputer.RowText withoutThumbnail = precomputer.get(NEWS_WITHOUT_THUMBNAIL);
+        assertNotNull(withThumbnail);
+        assertNotNull(withoutThumbnail);
+        assertEquals(new SimpleDateFormat(RowTextPrecomputer.DATE_PATTERN, Locale.UK)
+                        .format(new Date(NEWS_WITH_THUMBNAIL.getTimeInMillis())),
+                withThumbnail.getDate());
+        assertEquals(NEWS_WITH_THUMBNAIL.getTitle(),
+                withThumbnail.getTitleLayout().getText().toString());
+        // Without the thumbnail the title has the width of the thumbnail and its margin more.
+        assertTrue(withoutThumbnail.getTitleLayout().getWidth()
+                > withThumbnail.getTitleLayout().getWidth());
+
+        // The measured title of the bound row has the lines of the prepared layout.
+        title.setText(NEWS_WITH_THUMBNAIL.getTitle());
+        measure(row);
+        assertEquals(title.getLayout().getLineCount(),
+                withThumbnail.getTitleLayout().getLineCount());
+    }
+
+    @Test
+    public void changedTexts_areNotTakenFromTheOldLayout() {
+        RowTextPrecomputer precomputer = new RowTextPrecomputer(DIRECT_EXECUTOR);
+        setTemplate(precomputer, inflateRow());
+        precomputer.precompute(Collections.singletonList(NEWS_WITHOUT_THUMBNAIL));
+
+        News changed = new News("Election results: the final count", "Politics",
+                NEWS_WITHOUT_THUMBNAIL.getTimeInMillis(), "", NEWS_WITHOUT_THUMBNAIL.getUrl());
+
+        assertNull(precomputer.get(changed));
+        precomputer.precompute(Collections.singletonList(changed));
+        assertNotNull(precomputer.get(changed));
+    }
+
+    @Test
+    public void newsSubmittedBeforeTheTemplate_areLaidOutWithIt() {
+        RowTextPrecomputer precomputer = new RowTextPrecomputer(DIRECT_EXECUTOR);
+        precomputer.precompute(Collections.singletonList(NEWS_WITH_THUMBNAIL));
+        assertNull(precomputer.get(NEWS_WITH_THUMBNAIL));
+
+        setTemplate(precomputer, inflateRow());
+
+        assertNotNull(precomputer.get(NEWS_WITH_THUMBNAIL));
+    }
+
+    @Test
+    public void rowPool_returnsTheRowsInflatedInTheBackground() throws Exception {
+        final ViewGroup parent = new FrameLayout(context);
+        final View[] inflated = new View[2];
+        final CountDownLatch rowsInflated = new CountDownLatch(inflated.length);
+        final RowPool[] pool = new RowPool[1];
+        // The inflater delivers its rows to the thread which created it.
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pool[0] = new RowPool(context, R.layout.news_item);
+                pool[0].setOnRowInflatedListener(new RowPool.OnRowInflatedListener() {
+                    @Override
+                    public void onRowInflated(View row, ViewGroup rowParent) {
+                        inflated[inflated.length - (int) rowsInflated.getCount()] = row;
+                        rowsInflated.countDown();
+                    }
+                });
+                pool[0].fill(parent, inflated.length);
+                // Rows which are inflating are not requested twice.
+                pool[0].fill(parent, inflated.length);
+            }
+        });
+        assertTrue(rowsInflated.await(INFLATE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        final View[] obtained = new View[inflated.length + 1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < obtained.length; i++) {
+                    obtained[i] = pool[0].obtain(parent);
+                }
+            }
+        });
+        assertSame(inflated[0], obtained[0]);
+        assertSame(inflated[1], obtained[1]);
+        // The empty pool inflates the row at once.
+        assertNotNull(obtained[2].findViewById(R.id.title));
+    }
+
+    private View inflateRow() {
+        View row = LayoutInflater.from(context)
+                .inflate(R.layout.news_item, new FrameLayout(context), false);
+        row.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+        return row;
+    }
+
+    private void setTemplate(RowTextPrecomputer precomputer, View row) {
+        precomputer.setTemplate(row, row.findViewById(R.id.thumbnail),
+                (TextView) row.findViewById(R.id.title),
+                (TextView) row.findViewById(R.id.section),
+                (TextView) row.findViewById(R.id.date),
+                (TextView) row.findViewById(R.id.author), listWidth);
+    }
+
+    private void measure(View row) {
+        row.measure(View.MeasureSpec.makeMeasureSpec(listWidth, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.android.newsapp_2;
+
+import android.util.Log;
+
+import com.example.android.newsapp_2.core.Logger;
+
+/**
+ * Forwards the log messages of the core module to android.util.Log.
+ */
+
+public class AndroidLogger implements Logger {
+
+    @Override
+    public void info(String tag, String message) {
+        Log.i(tag, message);
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable throwable) {
+        Log.e(tag, message, throwable);
+    }
+}
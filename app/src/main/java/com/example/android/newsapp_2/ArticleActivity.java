@@ -0,0 +1,113 @@
+package com.example.android.newsapp_2;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.v4.app.NavUtils;
+import android.support.v7.app.AppCompatActivity;
+import android.text.Html;
+import android.text.Spanned;
+import android.text.method.LinkMovementMethod;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.TextView;
+
+import com.example.android.newsapp_2.core.ArticleStore;
+
+/**
+ * Shows an article whose body was stored for offline reading, so it can be read without a
+ * connection. If the body is gone the article is opened in the browser instead.
+ */
+
+public class ArticleActivity extends AppCompatActivity {
+
+    //Extras of the intent which opens an article.
+    public static final String EXTRA_URL = "url";
+    public static final String EXTRA_TITLE = "title";
+    //Name of the thread which reads the body from the disk.
+    private static final String READ_THREAD_NAME = "article-read";
+
+    private String mUrl;
+    private TextView mBodyTextView;
+    private View mLoadingIndicator;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_article);
+
+        mUrl = getIntent().getStringExtra(EXTRA_URL);
+        ((TextView) findViewById(R.id.article_title))
+                .setText(getIntent().getStringExtra(EXTRA_TITLE));
+        mBodyTextView = (TextView) findViewById(R.id.article_body);
+        //The links inside the article can be opened.
+        mBodyTextView.setMovementMethod(LinkMovementMethod.getInstance());
+        mLoadingIndicator = findViewById(R.id.article_loading_spinner);
+
+        //The body is unzipped from the disk, that is not done on the main thread.
+        final ArticleStore articleStore = ((NewsApplication) getApplication()).getArticleStore();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final String body = articleStore.get(mUrl);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        showBody(body);
+                    }
+                });
+            }
+        }, READ_THREAD_NAME).start();
+    }
+
+    private void showBody(String body) {
+        if (isFinishing()) {
+            return;
+        }
+        mLoadingIndicator.setVisibility(View.GONE);
+        if (body == null) {
+            //The article was removed from the store in the meantime.
+            openInBrowser();
+            finish();
+            return;
+        }
+        mBodyTextView.setText(fromHtml(body));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Spanned fromHtml(String html) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Html.fromHtml(html, Html.FROM_HTML_MODE_LEGACY);
+        }
+        return Html.fromHtml(html);
+    }
+
+    private void openInBrowser() {
+        Intent websiteIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(mUrl));
+        if (websiteIntent.resolveActivity(getPackageManager()) != null) {
+            startActivity(websiteIntent);
+        }
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.article, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int id = item.getItemId();
+        if (id == R.id.action_open_in_browser) {
+            openInBrowser();
+            return true;
+        }
+        if (id == android.R.id.home) {
+            NavUtils.navigateUpFromSameTask(this);
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.android.newsapp_2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.preference.PreferenceManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The query of the feed with the user settings: one url per keyword and the order of the
+ * News. The {@link MainActivity} and the {@link FeedSyncService} build their urls here, so the
+ * News which are synced in the background are found in the cache when the app is opened.
+ */
+
+public class FeedQuery {
+
+    //Number of News on one page.
+    public static final int PAGE_SIZE = 20;
+    //The url to get the data from
+    private static final String USGS_BASE_URL =
+            "https://content.guardianapis.com/search?";
+    private static final String API_KEY = "api-key";
+    //Separates the keywords in the settings, every keyword is queried on its own.
+    private static final String KEYWORD_SEPARATOR = ",";
+    //Maximum number of keywords which are queried.
+    private static final int MAX_KEYWORDS = 5;
+
+    private final Context mContext;
+    //The keywords as they were entered in the settings.
+    private final String mKeywordSearch;
+    private final Set<String> mKeyWords = new LinkedHashSet<>();
+    private final String mOrderBy;
+    private final boolean mNewestFirst;
+
+    //Read the query from the settings.
+    public FeedQuery(Context context) {
+        mContext = context;
+        SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+
+        // getString retrieves a String value from the preferences.
+        // The second parameter is the default value for this preference.
+        mKeywordSearch = sharedPrefs.getString(context.getString(R.string.settings_keyword_key),
+                context.getString(R.string.settings_keyword_default));
+
+        String orderBy = sharedPrefs.getString(context.getString(R.string.settings_order_by_key),
+                context.getString(R.string.settings_order_by_default));
+
+        // Several keywords are separated by commas. Replace potential empty space, numbers and
+        // special signs from every entered keyword.
+        for (String keyWord : mKeywordSearch.split(KEYWORD_SEPARATOR)) {
+            keyWord = keyWord.replace(" ", "").replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
+            if (!keyWord.isEmpty() && mKeyWords.size() < MAX_KEYWORDS) {
+                mKeyWords.add(keyWord);
+            }
+        }
+        if (mKeyWords.isEmpty()) {
+            mKeyWords.add("");
+        }
+
+        // The relevance of different queries can't be compared, so the News of several keywords
+        // are merged by their date.
+        mNewestFirst = !context.getString(R.string.settings_order_by_oldest_value).equals(orderBy);
+        if (mKeyWords.size() > 1 && mNewestFirst) {
+            orderBy = context.getString(R.string.settings_order_by_newest_value);
+        }
+        mOrderBy = orderBy;
+    }
+
+    //Return the keywords as they were entered in the settings.
+    public String getKeywordSearch() {
+        return mKeywordSearch;
+    }
+
+    //Return the keywords as they are queried, one url is built for every keyword.
+    public List<String> getKeywords() {
+        return new ArrayList<>(mKeyWords);
+    }
+
+    //Return true if the News are sorted newest first.
+    public boolean isNewestFirst() {
+        return mNewestFirst;
+    }
+
+    //Build the urls of the page, one for every keyword.
+    public List<String> buildUrls(int page) {
+        List<String> urls = new ArrayList<>(mKeyWords.size());
+        for (String keyWord : mKeyWords) {
+            urls.add(buildUrl(keyWord, page, PAGE_SIZE,
+                    mContext.getString(R.string.url_fields)));
+        }
+        return urls;
+    }
+
+    //Build the urls which ask for the article bodies of the top News of every keyword.
+    public List<String> buildArticleUrls(int count) {
+        List<String> urls = new ArrayList<>(mKeyWords.size());
+        for (String keyWord : mKeyWords) {
+            urls.add(buildUrl(keyWord, 1, count,
+                    mContext.getString(R.string.url_article_fields)));
+        }
+        return urls;
+    }
+
+    //Return the number of urls, one for every keyword.
+    public int getQueryCount() {
+        return mKeyWords.size();
+    }
+
+    //Build the url of the page of one keyword.
+    private String buildUrl(String keyWord, int page, int pageSize, String fields) {
+        // parse breaks apart the URI string that's passed into its parameter
+        Uri baseUri = Uri.parse(USGS_BASE_URL);
+
+        // buildUpon prepares the baseUri that we just parsed so we can add query parameters to it
+        Uri.Builder uriBuilder = baseUri.buildUpon();
+
+        uriBuilder.appendQueryParameter(mContext.getString(R.string.settings_keyword_key),
+                keyWord);
+        uriBuilder.appendQueryParameter(mContext.getString(R.string.url_show_fields), fields);
+        uriBuilder.appendQueryParameter(mContext.getString(R.string.settings_order_by_key),
+                mOrderBy);
+        uriBuilder.appendQueryParameter(mContext.getString(R.string.url_page_size),
+                String.valueOf(pageSize));
+        uriBuilder.appendQueryParameter(mContext.getString(R.string.url_page),
+                String.valueOf(page));
+        uriBuilder.appendQueryParameter(API_KEY, mContext.getString(R.string.api_key));
+
+        //return the complete uri with the user settings
+        return uriBuilder.toString();
+    }
+}
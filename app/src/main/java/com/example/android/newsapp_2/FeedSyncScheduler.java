@@ -0,0 +1,109 @@
+package com.example.android.newsapp_2;
+
+import android.annotation.TargetApi;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.os.Build;
+
+import com.example.android.newsapp_2.core.SyncInterval;
+
+/**
+ * Schedules the {@link FeedSyncService}, which refreshes the feed in the background so it is
+ * in the cache when the app is opened. The interval adapts to how often the feed changes, see
+ * {@link SyncInterval}, and the sync waits for the network and charging constraints of the
+ * config. The JobScheduler needs API level 21, on older devices the feed is only loaded when
+ * the app is open.
+ */
+
+public final class FeedSyncScheduler {
+
+    //Id of the sync job, there is only one.
+    private static final int JOB_ID = 1;
+
+    //Name of the preferences with the state of the adaptive interval.
+    private static final String PREFERENCES_NAME = "feed_sync";
+    private static final String KEY_INTERVAL_MILLIS = "interval_millis";
+    private static final String KEY_FINGERPRINT = "fingerprint";
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+
+    private FeedSyncScheduler() {
+    }
+
+    /**
+     * Schedule the sync unless it is scheduled already.
+     */
+    public static void schedule(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP || isScheduled(context)) {
+            return;
+        }
+        scheduleIn(context, getIntervalMillis(context));
+    }
+
+    /**
+     * Schedule the next sync after a sync loaded a feed with the given fingerprint. The interval
+     * gets shorter if the feed changed since the last sync and longer if not.
+     */
+    static void onSynced(Context context, long fingerprint) {
+        SharedPreferences preferences = getPreferences(context);
+        boolean changed = fingerprint != preferences.getLong(KEY_FINGERPRINT,
+                SyncInterval.NO_FINGERPRINT);
+        long intervalMillis = getSyncInterval(context).next(getIntervalMillis(context), changed);
+        preferences.edit()
+                .putLong(KEY_FINGERPRINT, fingerprint)
+                .putLong(KEY_INTERVAL_MILLIS, intervalMillis)
+                .apply();
+        scheduleIn(context, intervalMillis);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static boolean isScheduled(Context context) {
+        for (JobInfo job : getJobScheduler(context).getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void scheduleIn(Context context, long delayMillis) {
+        Resources resources = context.getResources();
+        JobInfo job = new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, FeedSyncService.class))
+                .setMinimumLatency(delayMillis)
+                .setRequiredNetworkType(resources.getBoolean(R.bool.sync_requires_unmetered)
+                        ? JobInfo.NETWORK_TYPE_UNMETERED : JobInfo.NETWORK_TYPE_ANY)
+                .setRequiresCharging(resources.getBoolean(R.bool.sync_requires_charging))
+                .setRequiresDeviceIdle(resources.getBoolean(R.bool.sync_requires_idle))
+                //Keep the sync scheduled after a reboot.
+                .setPersisted(true)
+                .build();
+        getJobScheduler(context).schedule(job);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static JobScheduler getJobScheduler(Context context) {
+        return (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+    }
+
+    private static long getIntervalMillis(Context context) {
+        SyncInterval syncInterval = getSyncInterval(context);
+        return getPreferences(context).getLong(KEY_INTERVAL_MILLIS, syncInterval.getMinMillis());
+    }
+
+    private static SyncInterval getSyncInterval(Context context) {
+        Resources resources = context.getResources();
+        return new SyncInterval(
+                resources.getInteger(R.integer.sync_min_interval_minutes) * MILLIS_PER_MINUTE,
+                resources.getInteger(R.integer.sync_max_interval_minutes) * MILLIS_PER_MINUTE);
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+}
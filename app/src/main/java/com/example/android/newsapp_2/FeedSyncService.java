@@ -0,0 +1,81 @@
+package com.example.android.newsapp_2;
+
+import android.annotation.TargetApi;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.os.Build;
+import android.util.Log;
+
+import com.example.android.newsapp_2.core.FetchEngine;
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.SyncInterval;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the first page of the feed of the user settings in the background. The
+ * {@link FetchEngine} stores it in the cache, so the next start of the app shows it without
+ * waiting for the network. Scheduled by the {@link FeedSyncScheduler}.
+ */
+
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class FeedSyncService extends JobService {
+
+    public static final String LOG_TAG = FeedSyncService.class.getSimpleName();
+
+    //The page which is synced, the app shows it first.
+    private static final int FIRST_PAGE = 1;
+
+    private volatile FetchEngine.Request mRequest;
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        FeedQuery query = new FeedQuery(this);
+        List<String> urls = query.buildUrls(FIRST_PAGE);
+        Log.i(LOG_TAG, "Syncing " + urls);
+
+        FetchEngine fetchEngine = ((NewsApplication) getApplication()).getFetchEngine();
+        //Only the fetched result is fresh, a result from memory or the store which is still
+        //revalidated must not finish the job. The job is finished once at most.
+        final AtomicBoolean finished = new AtomicBoolean();
+        mRequest = fetchEngine.loadAll(urls,
+                getResources().getInteger(R.integer.fetch_max_parallel_queries),
+                query.isNewestFirst(), new FetchEngine.Callback() {
+                    @Override
+                    public void onNewsLoaded(String url, List<News> newsList, boolean fresh) {
+                        if (fresh && finished.compareAndSet(false, true)) {
+                            onSyncFinished(params, newsList);
+                        }
+                    }
+                });
+        //The sync finishes on a thread of the engine.
+        return true;
+    }
+
+    private void onSyncFinished(JobParameters params, List<News> newsList) {
+        //The process may be killed after the job, keep the requests of the sync.
+        ((NewsApplication) getApplication()).saveState();
+        //A result from memory can be delivered before loadAll returned the request.
+        FetchEngine.Request request = mRequest;
+        if (newsList == null || (request != null && request.getFailure() != null)) {
+            //Try again later with the backoff of the JobScheduler.
+            Log.i(LOG_TAG, "Sync failed");
+            jobFinished(params, true);
+            return;
+        }
+        //Scheduling the job again stops it if it is still running, so it is finished first.
+        jobFinished(params, false);
+        FeedSyncScheduler.onSynced(this, SyncInterval.fingerprint(newsList));
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        //The constraints are not met anymore, e.g. the charger was unplugged.
+        FetchEngine.Request request = mRequest;
+        if (request != null) {
+            request.cancel();
+        }
+        return true;
+    }
+}
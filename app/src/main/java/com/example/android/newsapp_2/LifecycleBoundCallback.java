@@ -0,0 +1,105 @@
+package com.example.android.newsapp_2;
+
+import android.app.Activity;
+import android.arch.lifecycle.Lifecycle;
+import android.arch.lifecycle.LifecycleObserver;
+import android.arch.lifecycle.LifecycleOwner;
+import android.arch.lifecycle.OnLifecycleEvent;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.android.newsapp_2.core.FetchEngine;
+import com.example.android.newsapp_2.core.News;
+
+import java.util.List;
+
+/**
+ * Delivers the results of the {@link FetchEngine} on the main thread while the owner is at
+ * least started. A result which arrives while the owner is stopped is kept and delivered when
+ * it is started again. When the owner is destroyed nothing is delivered anymore and the request
+ * is canceled, unless the activity is only recreated for a configuration change: then the
+ * fetch finishes and its result is in the engine for the new activity.
+ */
+
+public class LifecycleBoundCallback implements FetchEngine.Callback, LifecycleObserver {
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final LifecycleOwner mOwner;
+    private final Lifecycle mLifecycle;
+    private final FetchEngine.Callback mCallback;
+    private FetchEngine.Request mRequest;
+
+    //The last result which arrived while the owner was stopped.
+    private PendingResult mPendingResult;
+
+    public LifecycleBoundCallback(LifecycleOwner owner, FetchEngine.Callback callback) {
+        mOwner = owner;
+        mLifecycle = owner.getLifecycle();
+        mCallback = callback;
+        mLifecycle.addObserver(this);
+    }
+
+    /**
+     * Set the request whose results are delivered, so it can be canceled with the owner.
+     */
+    public void setRequest(FetchEngine.Request request) {
+        mRequest = request;
+    }
+
+    @Override
+    public void onNewsLoaded(final String url, final List<News> newsList, final boolean fresh) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            deliver(new PendingResult(url, newsList, fresh));
+            return;
+        }
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                deliver(new PendingResult(url, newsList, fresh));
+            }
+        });
+    }
+
+    private void deliver(PendingResult result) {
+        if (mRequest != null && mRequest.isCanceled()) {
+            return;
+        }
+        if (mLifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            mCallback.onNewsLoaded(result.url, result.newsList, result.fresh);
+        } else if (mLifecycle.getCurrentState() != Lifecycle.State.DESTROYED) {
+            mPendingResult = result;
+        }
+    }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_START)
+    void onStart() {
+        PendingResult result = mPendingResult;
+        mPendingResult = null;
+        if (result != null) {
+            deliver(result);
+        }
+    }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+    void onDestroy() {
+        mPendingResult = null;
+        boolean recreated = mOwner instanceof Activity
+                && ((Activity) mOwner).isChangingConfigurations();
+        if (mRequest != null && !recreated) {
+            mRequest.cancel();
+        }
+        mLifecycle.removeObserver(this);
+    }
+
+    private static final class PendingResult {
+        final String url;
+        final List<News> newsList;
+        final boolean fresh;
+
+        PendingResult(String url, List<News> newsList, boolean fresh) {
+            this.url = url;
+            this.newsList = newsList;
+            this.fresh = fresh;
+        }
+    }
+}
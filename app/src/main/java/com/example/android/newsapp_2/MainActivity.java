@@ -1,41 +1,82 @@
 package com.example.android.newsapp_2;
 
-import android.app.LoaderManager;
+import android.arch.lifecycle.Lifecycle;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.Intent;
-import android.content.Loader;
-import android.content.SharedPreferences;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.net.Uri;
-import android.preference.PreferenceManager;
+import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.TextView;
 
+import com.example.android.newsapp_2.core.ArticlePrefetcher;
+import com.example.android.newsapp_2.core.ArticleStore;
+import com.example.android.newsapp_2.core.FetchEngine;
+import com.example.android.newsapp_2.core.FetchException;
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.NewsIndex;
+import com.example.android.newsapp_2.core.NewsMetrics;
+import com.example.android.newsapp_2.core.ReadState;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-public class MainActivity extends AppCompatActivity
-        implements LoaderManager.LoaderCallbacks<List<News>> {
+public class MainActivity extends AppCompatActivity {
 
     public static final String LOG_TAG = MainActivity.class.getName();
-    //The url to get the data from
-    private static final String USGS_BASE_URL =
-            "https://content.guardianapis.com/search?";
-    private static final String API_KEY = "api-key";
-    private static final int NEWS_LOADER_ID = 1;
-    public ArrayList<News> newsList;
+    //The first page of the results.
+    private static final int FIRST_PAGE = 1;
+    //Number of News on one page.
+    private static final int PAGE_SIZE = FeedQuery.PAGE_SIZE;
+    //Key of the shown News in the saved instance state.
+    private static final String KEY_NEWS = "news";
+    //Maximum number of News which are saved, so the Bundle stays small.
+    private static final int MAX_SAVED_NEWS = 100;
+    //Number of News left below the last visible one when the next page is loaded.
+    private static final int LOAD_MORE_THRESHOLD = 5;
     public String keyWordSearch;
+    //The keywords of keyWordSearch as they are queried.
+    private List<String> keyWords;
     private RecyclerViewEmptySupport recyclerView;
     private NewsAdapter newsAdapter;
     private TextView mEmptyTextView;
     private View loadingIndicator;
+    //Loads the News in the background and keeps the last results.
+    private FetchEngine fetchEngine;
+    //Searches the News which were loaded before.
+    private NewsIndex newsIndex;
+    private Executor searchExecutor;
+    //The article bodies which can be read offline and their background loading.
+    private ArticleStore articleStore;
+    private ArticlePrefetcher articlePrefetcher;
+    //Remembers the read News, they are dimmed in the list.
+    private ReadState readState;
+    //The urls of the first page which is shown and the requests of the first and next page.
+    private List<String> currentUrls;
+    private FetchEngine.Request firstPageRequest;
+    private FetchEngine.Request pageRequest;
+    //The page which is loaded next.
+    private int nextPage = FIRST_PAGE + 1;
+    //True when the first page of the current urls was delivered.
+    private boolean firstPageShown;
+    //True while the next page is loaded.
+    private boolean loadingPage;
+    //True when the last page returned less than PAGE_SIZE News.
+    private boolean lastPageReached;
+    //True if the News are sorted newest first.
+    private boolean newestFirst = true;
+    //Number of keywords which are loaded at the same time.
+    private int maxParallelQueries;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -45,7 +86,8 @@ public class MainActivity extends AppCompatActivity
         //define the recyclerView which shall later show the News
         recyclerView = findViewById(R.id.list);
         recyclerView.setHasFixedSize(true);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        final LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
 
         //Set an emptyView in case there is no data available.
         mEmptyTextView = findViewById(R.id.empty_view);
@@ -54,16 +96,36 @@ public class MainActivity extends AppCompatActivity
         //Display the loading spinner while the data is loaded.
         loadingIndicator = findViewById(R.id.loading_spinner);
 
+        fetchEngine = ((NewsApplication) getApplication()).getFetchEngine();
+        newsIndex = ((NewsApplication) getApplication()).getNewsIndex();
+        searchExecutor = ((NewsApplication) getApplication()).getSearchExecutor();
+        articleStore = ((NewsApplication) getApplication()).getArticleStore();
+        articlePrefetcher = ((NewsApplication) getApplication()).getArticlePrefetcher();
+        readState = ((NewsApplication) getApplication()).getReadState();
+        maxParallelQueries = getResources().getInteger(R.integer.fetch_max_parallel_queries);
+
         //initialize the currentNews Adapter
-        newsList = new ArrayList();
-        newsAdapter = new NewsAdapter(newsList, this);
+        newsAdapter = new NewsAdapter(this);
         recyclerView.setAdapter(newsAdapter);
         newsAdapter.setOnItemClickListener(new NewsAdapter.OnItemClickListener() {
             @Override
             public void onItemClick(int position) {
 
                 //get the current News Item
-                News clickedNews = newsList.get(position);
+                News clickedNews = newsAdapter.getItem(position);
+
+                //Dim the row when the user comes back.
+                readState.markRead(clickedNews.getUrlHash());
+                newsAdapter.notifyItemChanged(position);
+
+                //Read the stored article in the app, it works without a connection.
+                if (articleStore.contains(clickedNews.getUrl())) {
+                    Intent articleIntent = new Intent(MainActivity.this, ArticleActivity.class);
+                    articleIntent.putExtra(ArticleActivity.EXTRA_URL, clickedNews.getUrl());
+                    articleIntent.putExtra(ArticleActivity.EXTRA_TITLE, clickedNews.getTitle());
+                    startActivity(articleIntent);
+                    return;
+                }
 
                 // Convert the String URL into a URI object (to pass into the Intent constructor)
                 Uri newsUri = Uri.parse(clickedNews.getUrl());
@@ -77,79 +139,233 @@ public class MainActivity extends AppCompatActivity
             }
         });
 
-        //Check if the device is connected to the internet and only initate the loader when a
-        //the device is connected.
-        getActiveNetworkInfo();
-        if (getActiveNetworkInfo() != null
-                && getActiveNetworkInfo().isConnectedOrConnecting()) {
-            // Start the AsyncTask to fetch the news data
-            Log.i(LOG_TAG, "Loader Initiated");
-
-            getLoaderManager().initLoader(NEWS_LOADER_ID, null, this);
-        } else {
-            //Load the empty state with the no_connction string if the device is not connected to
-            //the interet.
+        //Show the News of the last instance until the engine delivers, e.g. after the process
+        //was killed in the background.
+        if (savedInstanceState != null && savedInstanceState.containsKey(KEY_NEWS)) {
+            NewsListParcel savedNews = savedInstanceState.getParcelable(KEY_NEWS);
+            newsAdapter.submitList(savedNews.getNewsList());
             loadingIndicator.setVisibility(View.GONE);
-            mEmptyTextView.setText(R.string.no_connection);
         }
 
+        //Prefetch the next page in the background before the end of the list is reached.
+        recyclerView.setOnLoadMoreListener(new RecyclerViewEmptySupport.OnLoadMoreListener() {
+            @Override
+            public void onLoadMore() {
+                loadNextPage();
+            }
+        }, LOAD_MORE_THRESHOLD);
+
+        //Load the thumbnails of the rows which are scrolled into view next.
+        final int thumbnailPrefetchRows =
+                getResources().getInteger(R.integer.thumbnail_prefetch_rows);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                if (dy > 0) {
+                    newsAdapter.prefetchThumbnails(
+                            layoutManager.findLastVisibleItemPosition() + 1,
+                            thumbnailPrefetchRows);
+                }
+            }
+        });
+
     }
 
     @Override
-    public Loader<List<News>> onCreateLoader(int i, Bundle bundle) {
-        SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
+    protected void onStart() {
+        super.onStart();
+        //Load the News when the activity is started the first time or the settings changed.
+        //After a rotation or when returning unchanged from the settings the engine delivers
+        //the last result without asking the network again.
+        List<String> urls = buildUrls(FIRST_PAGE);
+        if (!urls.equals(currentUrls)) {
+            loadFirstPage(urls);
+        }
+    }
 
-        // getString retrieves a String value from the preferences.
-        // The second parameter is the default value for this preference.
-        keyWordSearch = sharedPrefs.getString(getString(R.string.settings_keyword_key),
-                getString(R.string.settings_keyword_default));
+    //Build the urls of the page with the user settings, one for every keyword.
+    private List<String> buildUrls(int page) {
+        FeedQuery query = new FeedQuery(this);
+        keyWordSearch = query.getKeywordSearch();
+        keyWords = query.getKeywords();
+        newestFirst = query.isNewestFirst();
+        return query.buildUrls(page);
+    }
 
-        String orderBy = sharedPrefs.getString(getString(R.string.settings_order_by_key),
-                getString(R.string.settings_order_by_default));
+    //Load the first page of the urls. Requests for the former query are canceled.
+    private void loadFirstPage(List<String> urls) {
+        Log.i(LOG_TAG, "Loading " + urls);
+        cancelRequests();
+        boolean queryChanged = currentUrls != null;
+        currentUrls = urls;
+        firstPageShown = false;
+        if (newsAdapter.getItemCount() == 0) {
+            loadingIndicator.setVisibility(View.VISIBLE);
+        }
 
-        // Get the entered keyword and replace potential empty space, numbers and special signs
-        // from the entered keyword
-        String keyWord = keyWordSearch.replace(" ", "")
-                .replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
+        //The engine shows the cached news first and then refreshes them from the internet. The
+        //News of several keywords are shown as soon as the first keyword is loaded.
+        LifecycleBoundCallback callback = new LifecycleBoundCallback(this,
+                new FetchEngine.Callback() {
+                    @Override
+                    public void onNewsLoaded(String url, List<News> newsList, boolean fresh) {
+                        showFirstPage(newsList);
+                        //Only the final result which came from the network may have new top
+                        //News, a result from memory was prefetched when it was fetched.
+                        if (fresh && firstPageRequest != null && firstPageRequest.isFetched()) {
+                            prefetchArticles(firstPageRequest.getQueryResults());
+                        }
+                    }
+                });
+        firstPageRequest = fetchEngine.loadAll(urls, maxParallelQueries, newestFirst, callback);
+        callback.setRequest(firstPageRequest);
+        if (queryChanged && !firstPageShown) {
+            //Show the matching News which were loaded before, the search on the server
+            //continues in the background and replaces them. Like the feed, the results are
+            //the News of any of the keywords.
+            searchLocally(keyWords, firstPageRequest);
+        }
+    }
 
+    //Search the index in the background. The results are dropped when the first page of the
+    //request arrived before them or the request was replaced.
+    private void searchLocally(final List<String> keywords, final FetchEngine.Request request) {
+        searchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<News> localResults = newsIndex.searchAny(keywords, PAGE_SIZE);
+                if (localResults.isEmpty()) {
+                    return;
+                }
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (request != firstPageRequest || firstPageShown
+                                || !getLifecycle().getCurrentState()
+                                .isAtLeast(Lifecycle.State.STARTED)) {
+                            return;
+                        }
+                        loadingIndicator.setVisibility(View.GONE);
+                        newsAdapter.submitList(localResults);
+                    }
+                });
+            }
+        });
+    }
 
-        // parse breaks apart the URI string that's passed into its parameter
-        Uri baseUri = Uri.parse(USGS_BASE_URL);
+    //Store the article bodies of the top News of every keyword for offline reading. The top
+    //News of each keyword are the ones its article url asks for.
+    private void prefetchArticles(List<List<News>> queryResults) {
+        FeedQuery query = new FeedQuery(this);
+        int count = getResources().getInteger(R.integer.offline_articles_per_query);
+        articlePrefetcher.prefetch(query.buildArticleUrls(count), queryResults, count);
+    }
 
-        // buildUpon prepares the baseUri that we just parsed so we can add query parameters to it
-        Uri.Builder uriBuilder = baseUri.buildUpon();
+    private void cancelRequests() {
+        if (firstPageRequest != null) {
+            firstPageRequest.cancel();
+            firstPageRequest = null;
+        }
+        if (pageRequest != null) {
+            pageRequest.cancel();
+            pageRequest = null;
+        }
+    }
 
-        uriBuilder.appendQueryParameter(getResources().getString(R.string.settings_keyword_key),
-                keyWord);
-        uriBuilder.appendQueryParameter(getResources().getString(R.string.url_show_fields),
-                getResources().getString(R.string.url_byline));
-        uriBuilder.appendQueryParameter(getResources().getString(R.string.settings_order_by_key),
-                orderBy);
-        uriBuilder.appendQueryParameter(API_KEY, getResources().getString(R.string.api_key));
+    //Show the first page. The engine can deliver it twice: cached first and then refreshed.
+    private void showFirstPage(List<News> newsList) {
+        Log.i(LOG_TAG, "First page loaded");
+        firstPageShown = true;
+
+        //The first page is shown again, so the following pages start from the beginning.
+        if (pageRequest != null) {
+            pageRequest.cancel();
+            pageRequest = null;
+        }
+        loadingPage = false;
+        nextPage = FIRST_PAGE + 1;
+        lastPageReached = newsList != null && newsList.size() < PAGE_SIZE;
+        loadingIndicator.setVisibility(View.GONE);
+        FetchException failure = firstPageRequest != null ? firstPageRequest.getFailure() : null;
+        if (newsList == null && !isConnected()) {
+            //Load the empty state with the no_connction string if nothing is cached and the
+            //device is not connected to the interet.
+            mEmptyTextView.setText(R.string.no_connection);
+        } else if (newsList == null && failure != null
+                && failure.getKind() == FetchException.Kind.QUOTA_EXCEEDED) {
+            //The limit of requests of the API key is reached.
+            mEmptyTextView.setText(R.string.quota_exceeded);
+        } else if (newsList == null && failure != null && isTemporary(failure)) {
+            //The API is busy or down, the keyword is not the problem.
+            mEmptyTextView.setText(R.string.service_unavailable);
+        } else {
+            String wrongKey = getString(R.string.no_data, keyWordSearch);
+            mEmptyTextView.setText(wrongKey);
+        }
+
+        //Replace the old data, only the changed News are updated in the list.
+        newsAdapter.submitList(newsList);
 
-        //return the complete uri with the user settings
-        return new NewsLoader(this, uriBuilder.toString());
+    }
+
+    //Append the next page to the News which are already shown. The engine can deliver it
+    //several times: cached first, while the keywords are loaded and then refreshed.
+    private void showNextPage(int page, List<News> newsList, boolean fresh) {
+        if (newsList != null) {
+            newsAdapter.appendPage(newsList);
+        }
+        if (!fresh) {
+            return;
+        }
+        loadingPage = false;
+        if (newsList == null) {
+            return;
+        }
+        lastPageReached = newsList.size() < PAGE_SIZE;
+        nextPage = page + 1;
     }
 
     @Override
-    public void onLoadFinished(Loader<List<News>> loader, List<News> newsList) {
-        Log.i(LOG_TAG, "Loader Finished");
-        //Clear the adapter of old data
-        newsAdapter.clear();
-        loadingIndicator.setVisibility(View.GONE);
-        String wrongKey = getString(R.string.no_data, keyWordSearch);
-        mEmptyTextView.setText(wrongKey);
+    protected void onStop() {
+        super.onStop();
+        //The process may be killed in the background, keep what was read and seen and the
+        //requests of today.
+        ((NewsApplication) getApplication()).saveState();
+    }
 
-        if (newsList != null && !newsList.isEmpty()) {
-            newsAdapter.addAll(newsList);
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        List<News> shownNews = newsAdapter.getCurrentList();
+        if (shownNews.size() > MAX_SAVED_NEWS) {
+            shownNews = shownNews.subList(0, MAX_SAVED_NEWS);
         }
+        outState.putParcelable(KEY_NEWS, new NewsListParcel(new ArrayList<>(shownNews)));
+    }
 
+    //Load the next page in the background if there is one and it is not loaded already.
+    private void loadNextPage() {
+        if (loadingPage || lastPageReached || newsAdapter.getItemCount() == 0) {
+            return;
+        }
+        loadingPage = true;
+        final int page = nextPage;
+        LifecycleBoundCallback callback = new LifecycleBoundCallback(this,
+                new FetchEngine.Callback() {
+                    @Override
+                    public void onNewsLoaded(String url, List<News> newsList, boolean fresh) {
+                        showNextPage(page, newsList, fresh);
+                    }
+                });
+        pageRequest = fetchEngine.loadAll(buildUrls(page), maxParallelQueries, newestFirst,
+                callback);
+        callback.setRequest(pageRequest);
     }
 
-    @Override
-    public void onLoaderReset(Loader<List<News>> loader) {
-        Log.i(LOG_TAG, "Loader Resetted");
-        newsAdapter.clear();
+    //Check if the request failed only for now, e.g. because of too many requests.
+    private static boolean isTemporary(FetchException failure) {
+        return failure.isRetryable()
+                || failure.getKind() == FetchException.Kind.CIRCUIT_OPEN;
     }
 
     //Check if the device is connected to the internet.
@@ -160,10 +376,18 @@ public class MainActivity extends AppCompatActivity
         return networkInfo;
     }
 
+    //Check if the device is connected or connecting to the internet.
+    private boolean isConnected() {
+        NetworkInfo networkInfo = getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnectedOrConnecting();
+    }
+
     @Override
     // This method initialize the contents of the Activity's options menu.
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.main, menu);
+        menu.findItem(R.id.action_metrics).setVisible(BuildConfig.DEBUG
+                && NewsMetrics.isEnabled());
         return true;
     }
 
@@ -181,6 +405,27 @@ public class MainActivity extends AppCompatActivity
             Log.i(LOG_TAG, "SettingsActivity not found");
             return false;
         }
+        if (id == R.id.action_metrics) {
+            showMetrics();
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
+
+    //Show the recorded metrics as JSON, they are logged as well so they can be copied.
+    private void showMetrics() {
+        String metrics = NewsMetrics.toJson();
+        Log.i(LOG_TAG, "Metrics " + metrics);
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.metrics_menu_item)
+                .setMessage(metrics)
+                .setPositiveButton(android.R.string.ok, null)
+                .setNeutralButton(R.string.metrics_reset, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        NewsMetrics.reset();
+                    }
+                })
+                .show();
+    }
 }
@@ -2,13 +2,26 @@ package com.example.android.newsapp_2;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.v7.recyclerview.extensions.AsyncListDiffer;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 import android.widget.TextView;
 
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.NewsMetrics;
+import com.example.android.newsapp_2.core.ReadState;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 //Creating a RecyclerView.Adapter uses code from this video tutorial:
 //https://www.youtube.com/watch?v=gGFvbvkZiMs
@@ -16,65 +29,268 @@ import java.util.List;
 
 public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
 
-    //Declare the list of objects that shall be displayed.
-    private List<News> newsList;
+    //Opacity of the rows of News which were read.
+    private static final float READ_ALPHA = 0.6f;
+
+    //News are the same item if they have the same url, their content is the same if all shown
+    //texts are equal.
+    private static final DiffUtil.ItemCallback<News> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<News>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull News oldItem, @NonNull News newItem) {
+                    return oldItem.getUrl().equals(newItem.getUrl());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull News oldItem, @NonNull News newItem) {
+                    return oldItem.getTitle().equals(newItem.getTitle())
+                            && oldItem.getSectionId() == newItem.getSectionId()
+                            && oldItem.getTimeInMillis() == newItem.getTimeInMillis()
+                            && oldItem.getAuthor().equals(newItem.getAuthor())
+                            && oldItem.getThumbnailUrl().equals(newItem.getThumbnailUrl());
+                }
+            };
+
+    //Computes the difference between the old and the new list on a background thread and
+    //notifies only the inserted, removed, moved and changed items.
+    private final AsyncListDiffer<News> mDiffer = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    //The list which was submitted last. It is shown once its difference is computed, until
+    //then the differ still shows an older list.
+    private List<News> mSubmittedList = Collections.emptyList();
+    //The date of a row whose texts are not prepared yet is formatted when it is shown, always
+    //on the main thread, so one formatter is enough.
+    private final SimpleDateFormat mDateFormat =
+            new SimpleDateFormat(RowTextPrecomputer.DATE_PATTERN, Locale.UK);
+    private final Date mDate = new Date();
     //Declare the context object.
     private Context context;
     private OnItemClickListener mListener;
+    //Loads the thumbnails in the background, they are decoded for the size of the view.
+    private final ThumbnailLoader mThumbnailLoader;
+    private final int mThumbnailSize;
+    //Inflates the rows in the background before they are needed.
+    private final RowPool mRowPool;
+    private final int mPreinflatedRows;
+    //Lays out the texts of the submitted News in the background before they are bound.
+    private final RowTextPrecomputer mRowTexts;
+    //The width of the list the texts are laid out for, 0 until it is known.
+    private int mTemplateWidth;
+    //True if the rows are NewsRowViews instead of the news_item layout.
+    private final boolean mFlatRows;
+    //Which News were read, looked up by the hash of their url.
+    private final ReadState mReadState;
 
-
-    //Constructor to initialize the newsList and context object.
-    public NewsAdapter(List<News> newsList, Context context) {
-        this.newsList = newsList;
+    //Constructor to initialize the context object.
+    public NewsAdapter(Context context) {
         this.context = context;
+        mThumbnailLoader = ((NewsApplication) context.getApplicationContext())
+                .getThumbnailLoader();
+        mThumbnailSize = context.getResources().getDimensionPixelSize(R.dimen.thumbnailSize);
+        mRowTexts = new RowTextPrecomputer(((NewsApplication) context.getApplicationContext())
+                .getLayoutExecutor());
+        mPreinflatedRows = context.getResources().getInteger(R.integer.row_preinflate_count);
+        mFlatRows = context.getResources().getBoolean(R.bool.flat_news_rows);
+        mReadState = ((NewsApplication) context.getApplicationContext()).getReadState();
+        mRowPool = new RowPool(context, R.layout.news_item);
+        //The first row which is ready tells the widths of the texts.
+        mRowPool.setOnRowInflatedListener(new RowPool.OnRowInflatedListener() {
+            @Override
+            public void onRowInflated(View row, ViewGroup parent) {
+                if (mTemplateWidth == 0) {
+                    setTemplate(new ViewHolder(row), parent);
+                }
+            }
+        });
+        //The url of a News is its stable id, so the RecyclerView can reuse its views.
+        setHasStableIds(true);
     }
 
     public void setOnItemClickListener(OnItemClickListener listener) {
         mListener = listener;
     }
 
-    //Define method to clear the List, includes code from
-    // https://stackoverflow.com/questions/29978695/remove-all-items-from-recyclerview
+    //Return the News at the position of the list which is shown right now.
+    public News getItem(int position) {
+        return mDiffer.getCurrentList().get(position);
+    }
+
+    //Return the list which is shown right now, it can't be modified.
+    public List<News> getCurrentList() {
+        return mDiffer.getCurrentList();
+    }
+
+    //Remove all News from the list.
     public void clear() {
-        final int size = newsList.size();
-        newsList.clear();
-        notifyItemRangeRemoved(0, size);
+        mSubmittedList = Collections.emptyList();
+        mDiffer.submitList(null);
+    }
+
+    //Replace the shown News by the new list. Only the differences are notified.
+    public void submitList(List<News> newsList) {
+        if (newsList == null) {
+            clear();
+            return;
+        }
+        List<News> uniqueNews = new ArrayList<>(newsList.size());
+        addUnique(uniqueNews, new HashSet<String>(), newsList);
+        mRowTexts.precompute(uniqueNews);
+        mSubmittedList = uniqueNews;
+        mDiffer.submitList(uniqueNews);
     }
 
-    //Define method to add all Items to the list, includes code from
-    //https://stackoverflow.com/questions/31367599/how-to-update-recyclerview-adapter-data
-    public void addAll(List<News> newsList) {
-        this.newsList.addAll(newsList);
-        notifyDataSetChanged();
+    //Append the next page at the end of the list. News which are already shown are skipped and
+    //only the inserted range is notified, so the visible items are not bound again. The page is
+    //appended to the list which was submitted last, a list which is still diffed would be lost
+    //otherwise.
+    public void appendPage(List<News> page) {
+        List<News> submittedList = mSubmittedList;
+        List<News> newList = new ArrayList<>(submittedList.size() + page.size());
+        Set<String> urls = new HashSet<>();
+        addUnique(newList, urls, submittedList);
+        if (addUnique(newList, urls, page) > 0) {
+            mRowTexts.precompute(newList.subList(submittedList.size(), newList.size()));
+            mSubmittedList = newList;
+            mDiffer.submitList(newList);
+        }
+    }
+
+    //Load the thumbnails of the count News after from, before they are scrolled into view.
+    public void prefetchThumbnails(int from, int count) {
+        int end = Math.min(from + count, getItemCount());
+        for (int position = Math.max(from, 0); position < end; position++) {
+            String thumbnailUrl = getItem(position).getThumbnailUrl();
+            if (!thumbnailUrl.equals(News.NO_THUMBNAIL)) {
+                mThumbnailLoader.prefetch(thumbnailUrl, mThumbnailSize, mThumbnailSize);
+            }
+        }
+    }
+
+    //Add the News whose url is not in urls yet and return how many were added.
+    private static int addUnique(List<News> target, Set<String> urls, List<News> news) {
+        int added = 0;
+        for (News newsItem : news) {
+            if (urls.add(newsItem.getUrl())) {
+                target.add(newsItem);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    //Start inflating the rows as soon as the list is there, before the first News arrive.
+    //Flat rows need no inflation, their texts can be laid out at once.
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        if (mFlatRows) {
+            setTemplate(new ViewHolder(new NewsRowView(context)), recyclerView);
+        } else {
+            mRowPool.fill(recyclerView, mPreinflatedRows);
+        }
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        //create a view object which equals to the id of your news_item layout with viewgroup parent
-        //attachToRoot can be set to either false or true as it is not needed in this case.
-        View newsItemViewHolder = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.news_item, parent, false);
-        return new ViewHolder(newsItemViewHolder);
+        //Take a row which was inflated in the background, only if there is none left it is
+        //inflated now.
+        View row = mFlatRows ? new NewsRowView(parent.getContext()) : mRowPool.obtain(parent);
+        ViewHolder holder = new ViewHolder(row);
+        //The template may have been measured before the list had its width.
+        if (mTemplateWidth == 0 || (parent.getWidth() > 0
+                && parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight()
+                != mTemplateWidth)) {
+            setTemplate(holder, parent);
+        }
+        return holder;
+    }
+
+    //Measure the texts of an unbound row for the width of the list.
+    private void setTemplate(ViewHolder holder, ViewGroup parent) {
+        int listWidth = parent != null && parent.getWidth() > 0 ? parent.getWidth()
+                : context.getResources().getDisplayMetrics().widthPixels;
+        if (parent != null) {
+            listWidth -= parent.getPaddingLeft() + parent.getPaddingRight();
+        }
+        mTemplateWidth = listWidth;
+        if (holder.rowView != null) {
+            mRowTexts.setTemplate(holder.rowView.createRowStyle(listWidth, true),
+                    holder.rowView.createRowStyle(listWidth, false));
+        } else {
+            mRowTexts.setTemplate(holder.itemView, holder.thumbnailImageView,
+                    holder.titleTextView, holder.sectionTextView, holder.dateTextView,
+                    holder.authorTextView, listWidth);
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        long bindStart = NewsMetrics.start();
         //get the current Item (News) from the list.
-        News newsItem = newsList.get(position);
+        News newsItem = getItem(position);
+
+        //Get the text for the news items for the different views. The texts were usually laid
+        //out in the background already.
+        RowTextPrecomputer.RowText rowText = mRowTexts.get(newsItem);
+        String date = rowText != null ? rowText.getDate()
+                : formatDate(newsItem.getTimeInMillis());
+        if (holder.rowView != null) {
+            //The flat row only attaches the prepared layouts.
+            holder.rowView.bind(newsItem, date, rowText);
+        } else {
+            //A TextView can't take a prepared layout before PrecomputedText of API 28, so it
+            //still sets and lays out its text. Only the shaping of the words is found in the
+            //layout cache which the background layouts filled.
+            holder.titleTextView.setText(newsItem.getTitle());
+            holder.sectionTextView.setText(newsItem.getSection());
+            holder.dateTextView.setText(date);
+            holder.authorTextView.setText(newsItem.getAuthor());
+        }
 
-        //Get the text for the news items for the different views.
-        holder.titleTextView.setText(newsItem.getTitle());
-        holder.sectionTextView.setText(newsItem.getSection());
-        holder.dateTextView.setText(newsItem.getDate());
-        holder.authorTextView.setText(newsItem.getAuthor());
+        //Read News are dimmed. The lookup doesn't allocate, so it is cheap while scrolling.
+        holder.itemView.setAlpha(mReadState.isRead(newsItem.getUrlHash()) ? READ_ALPHA : 1f);
 
+        //News without a thumbnail show only their texts.
+        String thumbnailUrl = newsItem.getThumbnailUrl();
+        if (thumbnailUrl.equals(News.NO_THUMBNAIL)) {
+            mThumbnailLoader.cancel(holder.thumbnailImageView);
+            holder.thumbnailImageView.setImageDrawable(null);
+            holder.thumbnailImageView.setVisibility(View.GONE);
+        } else {
+            holder.thumbnailImageView.setVisibility(View.VISIBLE);
+            mThumbnailLoader.load(thumbnailUrl, holder.thumbnailImageView, mThumbnailSize,
+                    mThumbnailSize);
+        }
+        NewsMetrics.recordSince(NewsMetrics.Metric.BIND, bindStart);
     }
 
-    //Return the size of newsList
+    //Stop loading the thumbnail of a row which was scrolled out of view.
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        mThumbnailLoader.cancel(holder.thumbnailImageView);
+        holder.thumbnailImageView.setImageDrawable(null);
+    }
+
+    //Format the publication time for the date view.
+    private String formatDate(long timeInMillis) {
+        if (timeInMillis == News.NO_DATE) {
+            return RowTextPrecomputer.NO_DATE;
+        }
+        mDate.setTime(timeInMillis);
+        return mDateFormat.format(mDate);
+    }
+
+    //Return the size of the shown list
     @Override
     public int getItemCount() {
-        return newsList.size();
+        return mDiffer.getCurrentList().size();
+    }
+
+    //Return the stable id of the News, the hash of its url.
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getUrlHash();
     }
 
     //Creating an OnItemClickListener for a customized Adapter uses code from this tutorial:
@@ -92,16 +308,25 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
         public TextView sectionTextView;
         public TextView dateTextView;
         public TextView authorTextView;
+        public ImageView thumbnailImageView;
+        //The flat row, in that case there are no TextViews.
+        public NewsRowView rowView;
 
 
         public ViewHolder(View itemView) {
             super(itemView);
 
             //Initialize the views by ID.
-            titleTextView = itemView.findViewById(R.id.title);
-            sectionTextView = itemView.findViewById(R.id.section);
-            dateTextView = itemView.findViewById(R.id.date);
-            authorTextView = itemView.findViewById(R.id.author);
+            if (itemView instanceof NewsRowView) {
+                rowView = (NewsRowView) itemView;
+                thumbnailImageView = rowView.getThumbnailView();
+            } else {
+                titleTextView = itemView.findViewById(R.id.title);
+                sectionTextView = itemView.findViewById(R.id.section);
+                dateTextView = itemView.findViewById(R.id.date);
+                authorTextView = itemView.findViewById(R.id.author);
+                thumbnailImageView = itemView.findViewById(R.id.thumbnail);
+            }
 
             itemView.setOnClickListener(new View.OnClickListener() {
                 @Override
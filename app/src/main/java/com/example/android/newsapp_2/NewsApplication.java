@@ -0,0 +1,195 @@
+package com.example.android.newsapp_2;
+
+import android.app.Application;
+import android.content.res.Resources;
+
+import com.example.android.newsapp_2.core.ArticlePrefetcher;
+import com.example.android.newsapp_2.core.ArticleSource;
+import com.example.android.newsapp_2.core.ArticleStore;
+import com.example.android.newsapp_2.core.CircuitBreaker;
+import com.example.android.newsapp_2.core.DailyBudget;
+import com.example.android.newsapp_2.core.FetchEngine;
+import com.example.android.newsapp_2.core.ImageFetcher;
+import com.example.android.newsapp_2.core.IndexingSource;
+import com.example.android.newsapp_2.core.NewsCache;
+import com.example.android.newsapp_2.core.NewsIndex;
+import com.example.android.newsapp_2.core.NewsLog;
+import com.example.android.newsapp_2.core.NewsMetrics;
+import com.example.android.newsapp_2.core.NewsSource;
+import com.example.android.newsapp_2.core.QuotaSource;
+import com.example.android.newsapp_2.core.RateLimiter;
+import com.example.android.newsapp_2.core.ReadState;
+import com.example.android.newsapp_2.core.ResilientSource;
+import com.example.android.newsapp_2.core.SingleFlightSource;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+public class NewsApplication extends Application {
+
+    //Name of the directory of the NewsCache inside the cache directory of the app.
+    private static final String CACHE_DIRECTORY = "news";
+    //Name of the directory of the downloaded thumbnails inside the cache directory of the app.
+    private static final String THUMBNAIL_DIRECTORY = "thumbnails";
+    //Name of the directory of the offline articles inside the cache directory of the app.
+    private static final String ARTICLE_DIRECTORY = "articles";
+    //Name of the file with the requests of today, it must not be removed with the cache.
+    private static final String BUDGET_FILE = "request_budget";
+    //Name of the file with the read and seen News, it must not be removed with the cache.
+    private static final String READ_STATE_FILE = "read_state";
+    //Name of the thread which indexes the cached News.
+    private static final String INDEX_THREAD_NAME = "NewsIndex";
+
+    //Milliseconds of a minute, the refresh interval is configured in minutes.
+    private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+    private static final long MILLIS_PER_DAY = 24 * 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024L;
+
+    //One engine for the whole process, so its results survive rotations and activity restarts.
+    private FetchEngine mFetchEngine;
+    //Keeps the requests within the limits of the API key.
+    private QuotaSource mQuotaSource;
+    //Finds the loaded News without the network.
+    private NewsIndex mNewsIndex;
+    //Searches the index, so the main thread never walks the postings.
+    private final Executor mSearchExecutor = Executors.newSingleThreadExecutor();
+    //Loads the thumbnails of all lists, so they share one memory cache.
+    private ThumbnailLoader mThumbnailLoader;
+    //The article bodies for offline reading and their background loading.
+    private ArticleStore mArticleStore;
+    private ArticlePrefetcher mArticlePrefetcher;
+    //Lays out the texts of the news rows before they are shown.
+    private final Executor mLayoutExecutor = Executors.newSingleThreadExecutor();
+    //Which News were read or shown.
+    private ReadState mReadState;
+    //The requests of today, the file is only written from time to time.
+    private DailyBudget mDailyBudget;
+    //Saves the read state and the budget, so the main thread never writes to the disk.
+    private final Executor mStateExecutor = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        //Show the log messages of the core module in logcat.
+        NewsLog.setLogger(new AndroidLogger());
+        //Switched on before the first request, it is not changed afterwards.
+        NewsMetrics.setEnabled(getResources().getBoolean(R.bool.metrics_enabled));
+
+        Resources resources = getResources();
+        //Every request, also every retry, counts against the limits of the API key.
+        RateLimiter rateLimiter = new RateLimiter(
+                resources.getInteger(R.integer.quota_requests_per_second),
+                resources.getInteger(R.integer.quota_burst));
+        mDailyBudget = new DailyBudget(new File(getFilesDir(), BUDGET_FILE),
+                resources.getInteger(R.integer.quota_requests_per_day));
+        mQuotaSource = new QuotaSource(NewsSource.GUARDIAN, rateLimiter, mDailyBudget,
+                resources.getInteger(R.integer.quota_max_wait_millis));
+        //Temporary failures are retried, while the API keeps failing the cached news are shown.
+        NewsSource resilientSource = new ResilientSource(mQuotaSource,
+                new CircuitBreaker(resources.getInteger(R.integer.fetch_circuit_failure_threshold),
+                        resources.getInteger(R.integer.fetch_circuit_open_seconds)
+                                * MILLIS_PER_SECOND),
+                resources.getInteger(R.integer.fetch_max_attempts),
+                resources.getInteger(R.integer.fetch_retry_base_delay_millis),
+                resources.getInteger(R.integer.fetch_retry_max_delay_millis));
+        //Every fetched News is added to the search index.
+        mNewsIndex = new NewsIndex(resources.getInteger(R.integer.search_index_max_news));
+        NewsSource indexingSource = new IndexingSource(resilientSource, mNewsIndex);
+        //Screens, a rotation and a refresh which ask for the same query share one request.
+        final NewsCache newsCache = new NewsCache(new File(getCacheDir(), CACHE_DIRECTORY));
+        mFetchEngine = new FetchEngine(new SingleFlightSource(indexingSource), newsCache,
+                resources.getInteger(R.integer.fetch_threads),
+                resources.getInteger(R.integer.fetch_max_queued_requests),
+                resources.getInteger(R.integer.fetch_refresh_interval_minutes)
+                        * MILLIS_PER_MINUTE);
+
+        mThumbnailLoader = new ThumbnailLoader(this,
+                new ImageFetcher(new File(getCacheDir(), THUMBNAIL_DIRECTORY),
+                        resources.getInteger(R.integer.thumbnail_disk_cache_megabytes)
+                                * BYTES_PER_MEGABYTE),
+                resources.getInteger(R.integer.thumbnail_threads));
+
+        //The article bodies are requested within the same limits of the API key.
+        mArticleStore = new ArticleStore(new File(getCacheDir(), ARTICLE_DIRECTORY),
+                resources.getInteger(R.integer.offline_articles_megabytes) * BYTES_PER_MEGABYTE);
+        mArticlePrefetcher = new ArticlePrefetcher(
+                new QuotaSource(new ArticleSource(mArticleStore), rateLimiter, mDailyBudget,
+                        resources.getInteger(R.integer.quota_max_wait_millis)),
+                mArticleStore, Executors.newSingleThreadExecutor());
+
+        mReadState = new ReadState(new File(getFilesDir(), READ_STATE_FILE),
+                resources.getInteger(R.integer.read_state_retention_days) * MILLIS_PER_DAY,
+                resources.getInteger(R.integer.read_state_generations));
+
+        //Keep the feed fresh in the cache while the app is closed.
+        FeedSyncScheduler.schedule(this);
+
+        //The News of the last days are searchable right after the start, even offline. The
+        //read News are dimmed as soon as their state is loaded. The budget and the names of
+        //the stored articles are read here, so the main thread doesn't read them.
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mDailyBudget.load();
+                mReadState.load();
+                mArticleStore.load();
+                mNewsIndex.addAll(newsCache.getAll());
+            }
+        }, INDEX_THREAD_NAME).start();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        mThumbnailLoader.trimMemory(level);
+    }
+
+    public FetchEngine getFetchEngine() {
+        return mFetchEngine;
+    }
+
+    public QuotaSource getQuotaSource() {
+        return mQuotaSource;
+    }
+
+    public NewsIndex getNewsIndex() {
+        return mNewsIndex;
+    }
+
+    public Executor getSearchExecutor() {
+        return mSearchExecutor;
+    }
+
+    public ThumbnailLoader getThumbnailLoader() {
+        return mThumbnailLoader;
+    }
+
+    public Executor getLayoutExecutor() {
+        return mLayoutExecutor;
+    }
+
+    public ArticleStore getArticleStore() {
+        return mArticleStore;
+    }
+
+    public ArticlePrefetcher getArticlePrefetcher() {
+        return mArticlePrefetcher;
+    }
+
+    public ReadState getReadState() {
+        return mReadState;
+    }
+
+    //Write the read and seen News and the requests of today to the disk in the background.
+    public void saveState() {
+        mStateExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mReadState.save();
+                mDailyBudget.flush();
+            }
+        });
+    }
+}
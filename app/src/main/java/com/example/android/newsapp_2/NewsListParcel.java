@@ -0,0 +1,90 @@
+package com.example.android.newsapp_2;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.SparseIntArray;
+
+import com.example.android.newsapp_2.core.News;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Parcelable} list of {@link News}, so a list can be put into a Bundle or Intent. News
+ * is part of the core module, which doesn't know Parcelable, so the fields are written here.
+ * Like {@link News#writeList}, every section name is written once and the News refer to it
+ * by index. The ids of {@link com.example.android.newsapp_2.core.Sections} are not written,
+ * they are only valid inside the process and a Bundle can outlive it.
+ */
+
+public class NewsListParcel implements Parcelable {
+
+    public static final Creator<NewsListParcel> CREATOR = new Creator<NewsListParcel>() {
+        @Override
+        public NewsListParcel createFromParcel(Parcel in) {
+            return new NewsListParcel(in);
+        }
+
+        @Override
+        public NewsListParcel[] newArray(int size) {
+            return new NewsListParcel[size];
+        }
+    };
+
+    private final List<News> mNewsList;
+
+    public NewsListParcel(List<News> newsList) {
+        mNewsList = newsList;
+    }
+
+    private NewsListParcel(Parcel in) {
+        int sectionCount = in.readInt();
+        String[] sectionNames = new String[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            sectionNames[i] = in.readString();
+        }
+        int count = in.readInt();
+        mNewsList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = in.readString();
+            String section = sectionNames[in.readInt()];
+            mNewsList.add(new News(title, section, in.readLong(), in.readString(),
+                    in.readString(), in.readString()));
+        }
+    }
+
+    public List<News> getNewsList() {
+        return mNewsList;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        SparseIntArray sectionIndexes = new SparseIntArray();
+        List<String> sectionNames = new ArrayList<>();
+        for (News news : mNewsList) {
+            if (sectionIndexes.indexOfKey(news.getSectionId()) < 0) {
+                sectionIndexes.put(news.getSectionId(), sectionNames.size());
+                sectionNames.add(news.getSection());
+            }
+        }
+
+        dest.writeInt(sectionNames.size());
+        for (String sectionName : sectionNames) {
+            dest.writeString(sectionName);
+        }
+        dest.writeInt(mNewsList.size());
+        for (News news : mNewsList) {
+            dest.writeString(news.getTitle());
+            dest.writeInt(sectionIndexes.get(news.getSectionId()));
+            dest.writeLong(news.getTimeInMillis());
+            dest.writeString(news.getAuthor());
+            dest.writeString(news.getUrl());
+            dest.writeString(news.getThumbnailUrl());
+        }
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+}
@@ -1,36 +0,0 @@
-package com.example.android.newsapp_2;
-
-import android.content.AsyncTaskLoader;
-import android.content.Context;
-import android.util.Log;
-
-import java.util.List;
-
-public class NewsLoader extends AsyncTaskLoader<List<News>> {
-
-    public static final String LOG_TAG = NewsLoader.class.getName();
-
-    String mUrl;
-
-    public NewsLoader(Context context, String url) {
-        super(context);
-        mUrl = url;
-    }
-
-    @Override
-    protected void onStartLoading() {
-        Log.i(LOG_TAG, "Loader Started");
-        forceLoad();
-    }
-
-    @Override
-    public List<News> loadInBackground() {
-        // Don't perform the request if there are no URLs, or the first URL is null.
-        if (mUrl == null) {
-            return null;
-        }
-
-        List<News> result = QueryUtils.fetchNewsData(mUrl);
-        return result;
-    }
-}
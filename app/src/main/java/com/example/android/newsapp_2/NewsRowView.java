@@ -0,0 +1,230 @@
+package com.example.android.newsapp_2;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.view.ViewCompat;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.example.android.newsapp_2.core.News;
+
+/**
+ * A row of the news list as one view, which looks like the news_item layout. The title, section,
+ * date and author are measured and drawn directly from text layouts; only the thumbnail is a
+ * child view, so the {@link ThumbnailLoader} loads into it like before.
+ * <p>
+ * news_item needs seven views and its weighted LinearLayouts measure their children twice.
+ * This row measures each text once, and not at all if the texts were laid out in the
+ * background by the {@link RowTextPrecomputer}.
+ */
+
+public class NewsRowView extends ViewGroup {
+
+    private final ImageView mThumbnailView;
+    private final int mPadding;
+    private final int mThumbnailSize;
+    //Space above every text, and below the date and author.
+    private final int mTextMargin;
+    private final TextPaint mTitlePaint;
+    private final TextPaint mSectionPaint;
+    private final TextPaint mDateAuthorPaint;
+
+    //The shown texts and their layouts, which are built again only when a text or the width
+    //changes.
+    private String mTitle = "";
+    private String mSection = "";
+    private String mDate = "";
+    private String mAuthor = "";
+    private Layout mTitleLayout;
+    private Layout mSectionLayout;
+    private Layout mDateLayout;
+    private Layout mAuthorLayout;
+
+    public NewsRowView(Context context) {
+        super(context);
+        Resources resources = context.getResources();
+        mPadding = resources.getDimensionPixelSize(R.dimen.generalPadding);
+        mThumbnailSize = resources.getDimensionPixelSize(R.dimen.thumbnailSize);
+        mTextMargin = resources.getDimensionPixelSize(R.dimen.itemTextMargin);
+        //The same paints as the styles NewsTitle, NewsSection, NewsDate and NewsAuthor.
+        mTitlePaint = createPaint(context, R.dimen.titleTextSize, R.color.colorTitle, true);
+        mSectionPaint = createPaint(context, R.dimen.sectionTextSize, R.color.colorSection, true);
+        mDateAuthorPaint = createPaint(context, R.dimen.authorDateTextSize,
+                R.color.colorDateAuthor, false);
+
+        mThumbnailView = new ImageView(context);
+        mThumbnailView.setId(R.id.thumbnail);
+        mThumbnailView.setScaleType(ImageView.ScaleType.CENTER_CROP);
+        mThumbnailView.setContentDescription(null);
+        addView(mThumbnailView, new LayoutParams(mThumbnailSize, mThumbnailSize));
+
+        setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+        setPadding(mPadding, mPadding, mPadding, mPadding);
+        setWillNotDraw(false);
+    }
+
+    /**
+     * Return the styles of the texts of a row in a list of the given width, with or without the
+     * thumbnail, so the {@link RowTextPrecomputer} lays them out exactly as this view would.
+     */
+    public RowTextPrecomputer.RowStyle createRowStyle(int listWidth, boolean withThumbnail) {
+        int textWidth = textWidthFor(listWidth, withThumbnail);
+        return new RowTextPrecomputer.RowStyle(
+                new RowTextPrecomputer.TextStyle(mTitlePaint, textWidth,
+                        Layout.Alignment.ALIGN_CENTER),
+                new RowTextPrecomputer.TextStyle(mSectionPaint, textWidth,
+                        Layout.Alignment.ALIGN_OPPOSITE),
+                new RowTextPrecomputer.TextStyle(mDateAuthorPaint, textWidth / 2,
+                        Layout.Alignment.ALIGN_NORMAL),
+                new RowTextPrecomputer.TextStyle(mDateAuthorPaint, textWidth - textWidth / 2,
+                        Layout.Alignment.ALIGN_OPPOSITE));
+    }
+
+    public ImageView getThumbnailView() {
+        return mThumbnailView;
+    }
+
+    /**
+     * Show the texts of the News. The layouts of the rowText are used if they fit the width of
+     * this row, otherwise the texts are laid out when the row is measured.
+     */
+    public void bind(News news, String date, RowTextPrecomputer.RowText rowText) {
+        if (mTitle.equals(news.getTitle()) && mSection.equals(news.getSection())
+                && mDate.equals(date) && mAuthor.equals(news.getAuthor()) && rowText == null) {
+            return;
+        }
+        mTitle = news.getTitle();
+        mSection = news.getSection();
+        mDate = date;
+        mAuthor = news.getAuthor();
+        if (rowText != null) {
+            mTitleLayout = rowText.getTitleLayout();
+            mSectionLayout = rowText.getSectionLayout();
+            mDateLayout = rowText.getDateLayout();
+            mAuthorLayout = rowText.getAuthorLayout();
+        } else {
+            mTitleLayout = null;
+            mSectionLayout = null;
+            mDateLayout = null;
+            mAuthorLayout = null;
+        }
+        //Read the texts out like the TextViews of news_item.
+        setContentDescription(mTitle + "\n" + mSection + "\n" + mDate + "\n" + mAuthor);
+        requestLayout();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        boolean withThumbnail = mThumbnailView.getVisibility() != GONE;
+        if (withThumbnail) {
+            int thumbnailSpec = MeasureSpec.makeMeasureSpec(mThumbnailSize, MeasureSpec.EXACTLY);
+            mThumbnailView.measure(thumbnailSpec, thumbnailSpec);
+        }
+
+        //Only the texts whose width changed are laid out again.
+        int textWidth = textWidthFor(width, withThumbnail);
+        mTitleLayout = layout(mTitleLayout, mTitle, mTitlePaint, textWidth,
+                Layout.Alignment.ALIGN_CENTER);
+        mSectionLayout = layout(mSectionLayout, mSection, mSectionPaint, textWidth,
+                Layout.Alignment.ALIGN_OPPOSITE);
+        mDateLayout = layout(mDateLayout, mDate, mDateAuthorPaint, textWidth / 2,
+                Layout.Alignment.ALIGN_NORMAL);
+        mAuthorLayout = layout(mAuthorLayout, mAuthor, mDateAuthorPaint,
+                textWidth - textWidth / 2, Layout.Alignment.ALIGN_OPPOSITE);
+
+        int contentHeight = textHeight();
+        if (withThumbnail) {
+            contentHeight = Math.max(contentHeight, mThumbnailSize);
+        }
+        setMeasuredDimension(width,
+                resolveSize(contentHeight + getPaddingTop() + getPaddingBottom(),
+                        heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (mThumbnailView.getVisibility() != GONE) {
+            int thumbnailLeft = isRtl() ? right - left - getPaddingRight() - mThumbnailSize
+                    : getPaddingLeft();
+            mThumbnailView.layout(thumbnailLeft, getPaddingTop(),
+                    thumbnailLeft + mThumbnailSize, getPaddingTop() + mThumbnailSize);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int textLeft = getPaddingLeft();
+        if (mThumbnailView.getVisibility() != GONE && !isRtl()) {
+            textLeft += mThumbnailSize + mPadding;
+        }
+        int y = getPaddingTop() + mTextMargin;
+        y = draw(canvas, mTitleLayout, textLeft, y) + mTextMargin;
+        y = draw(canvas, mSectionLayout, textLeft, y) + mTextMargin;
+        draw(canvas, mDateLayout, textLeft, y);
+        draw(canvas, mAuthorLayout, textLeft + mDateLayout.getWidth(), y);
+    }
+
+    //Height of the texts with their margins, like the text column of news_item.
+    private int textHeight() {
+        return mTextMargin + mTitleLayout.getHeight()
+                + mTextMargin + mSectionLayout.getHeight()
+                + mTextMargin + Math.max(mDateLayout.getHeight(), mAuthorLayout.getHeight())
+                + mTextMargin;
+    }
+
+    //Width of the text column, the row minus its padding and the thumbnail with its margin.
+    private int textWidthFor(int rowWidth, boolean withThumbnail) {
+        int textWidth = rowWidth - 2 * mPadding;
+        if (withThumbnail) {
+            textWidth -= mThumbnailSize + mPadding;
+        }
+        return Math.max(0, textWidth);
+    }
+
+    private boolean isRtl() {
+        return ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
+    }
+
+    //Return the layout if it shows the text in the width, otherwise build a new one.
+    private static Layout layout(Layout layout, String text, TextPaint paint, int width,
+                                 Layout.Alignment alignment) {
+        if (layout != null && layout.getWidth() == width && layout.getText().equals(text)) {
+            return layout;
+        }
+        return new StaticLayout(text, paint, width, alignment,
+                RowTextPrecomputer.TextStyle.DEFAULT_SPACING_MULTIPLIER,
+                RowTextPrecomputer.TextStyle.DEFAULT_SPACING_EXTRA, true);
+    }
+
+    //Draw the layout at the position and return the bottom of it.
+    private static int draw(Canvas canvas, Layout layout, int left, int top) {
+        canvas.save();
+        canvas.translate(left, top);
+        layout.draw(canvas);
+        canvas.restore();
+        return top + layout.getHeight();
+    }
+
+    private static TextPaint createPaint(Context context, int textSizeId, int colorId,
+                                         boolean bold) {
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.density = context.getResources().getDisplayMetrics().density;
+        //TextViews round their text size to whole pixels as well.
+        paint.setTextSize(context.getResources().getDimensionPixelSize(textSizeId));
+        paint.setColor(ContextCompat.getColor(context, colorId));
+        if (bold) {
+            paint.setTypeface(Typeface.DEFAULT_BOLD);
+        }
+        return paint;
+    }
+}
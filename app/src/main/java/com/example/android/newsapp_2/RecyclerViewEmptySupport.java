@@ -6,12 +6,16 @@ package com.example.android.newsapp_2;
 // Courtesy of maff91 (https://stackoverflow.com/users/4932464/maff91)
 
 import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.view.View;
 
 public class RecyclerViewEmptySupport extends RecyclerView {
     private View emptyView;
+    private OnLoadMoreListener loadMoreListener;
+    //Number of items left below the last visible one when the next page is requested.
+    private int loadMoreThreshold;
 
     private AdapterDataObserver emptyObserver = new AdapterDataObserver() {
 
@@ -30,6 +34,33 @@ public class RecyclerViewEmptySupport extends RecyclerView {
             }
 
         }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            onChanged();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            onChanged();
+        }
+    };
+
+    //Ask for the next page when the list is scrolled close to its end.
+    private OnScrollListener loadMoreScrollListener = new OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            Adapter<?> adapter = getAdapter();
+            if (loadMoreListener == null || adapter == null || dy <= 0
+                    || !(getLayoutManager() instanceof LinearLayoutManager)) {
+                return;
+            }
+            int lastVisible = ((LinearLayoutManager) getLayoutManager())
+                    .findLastVisibleItemPosition();
+            if (lastVisible + loadMoreThreshold >= adapter.getItemCount()) {
+                loadMoreListener.onLoadMore();
+            }
+        }
     };
 
     public RecyclerViewEmptySupport(Context context) {
@@ -58,4 +89,21 @@ public class RecyclerViewEmptySupport extends RecyclerView {
     public void setEmptyView(View emptyView) {
         this.emptyView = emptyView;
     }
+
+    /**
+     * Set the listener which is called when there are only threshold items left below the last
+     * visible item, so the next page can be loaded before the end of the list is reached.
+     */
+    public void setOnLoadMoreListener(OnLoadMoreListener listener, int threshold) {
+        removeOnScrollListener(loadMoreScrollListener);
+        this.loadMoreListener = listener;
+        this.loadMoreThreshold = threshold;
+        if (listener != null) {
+            addOnScrollListener(loadMoreScrollListener);
+        }
+    }
+
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.android.newsapp_2;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+
+/**
+ * Inflates rows of the news list on a background thread before the list needs them, so the
+ * first results and fast flings don't wait for the inflation on the main thread. A row which
+ * is requested while the pool is empty is inflated at once, as before.
+ * <p>
+ * All methods have to be called on the main thread.
+ */
+
+public class RowPool implements AsyncLayoutInflater.OnInflateFinishedListener {
+
+    /**
+     * Receives every row which was inflated in the background, e.g. to measure it.
+     */
+    public interface OnRowInflatedListener {
+        void onRowInflated(View row, ViewGroup parent);
+    }
+
+    private final AsyncLayoutInflater mAsyncInflater;
+    private final int mLayoutId;
+    private final ArrayDeque<View> mRows = new ArrayDeque<>();
+    //Number of rows which are inflated in the background right now.
+    private int mInflating;
+    private OnRowInflatedListener mListener;
+
+    public RowPool(Context context, int layoutId) {
+        mAsyncInflater = new AsyncLayoutInflater(context);
+        mLayoutId = layoutId;
+    }
+
+    public void setOnRowInflatedListener(OnRowInflatedListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Inflate rows in the background until count rows are ready. The parent only provides the
+     * layout params, the rows are not attached to it.
+     */
+    public void fill(ViewGroup parent, int count) {
+        for (int missing = count - mRows.size() - mInflating; missing > 0; missing--) {
+            mInflating++;
+            mAsyncInflater.inflate(mLayoutId, parent, this);
+        }
+    }
+
+    /**
+     * Return a row which was inflated before or inflate one now if there is none.
+     */
+    public View obtain(ViewGroup parent) {
+        View row = mRows.poll();
+        if (row != null) {
+            return row;
+        }
+        return LayoutInflater.from(parent.getContext()).inflate(mLayoutId, parent, false);
+    }
+
+    @Override
+    public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+        mInflating--;
+        mRows.add(view);
+        if (mListener != null) {
+            mListener.onRowInflated(view, parent);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.android.newsapp_2;
+
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LruCache;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.TextView;
+
+import com.example.android.newsapp_2.core.News;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Lays out the texts of the rows of the news list on a background thread, before the rows are
+ * bound. A {@link RowText} holds the formatted date and a {@link StaticLayout} of the title,
+ * section, date and author, built with the paints and widths of the TextViews of a row.
+ * <p>
+ * Only a {@link NewsRowView} draws the prepared layouts, its bind doesn't lay out any text.
+ * The TextViews of the news_item layout still set their texts and build their own layouts
+ * on the main thread. For them, building the layouts in the background only fills the text
+ * layout cache of the platform, so the words are not shaped again. All methods have to be
+ * called on the main thread.
+ */
+
+public class RowTextPrecomputer {
+
+    //Pattern of the shown date, the time is shown in a second line.
+    static final String DATE_PATTERN = "dd.MM.yyyy \nHH:mm";
+    //String for Unknown date.
+    static final String NO_DATE = "";
+
+    //Number of rows whose layouts are kept.
+    private static final int MAX_ROWS = 200;
+
+    private final Executor mExecutor;
+    //The prepared texts by the url of their News.
+    private final LruCache<String, RowText> mRows = new LruCache<>(MAX_ROWS);
+    //Only used by formatDate.
+    private final SimpleDateFormat mDateFormat = new SimpleDateFormat(DATE_PATTERN, Locale.UK);
+    private final Date mDate = new Date();
+
+    //The styles of the texts, measured from a row. Null until a row was measured.
+    private volatile RowStyle mStyleWithThumbnail;
+    private volatile RowStyle mStyleWithoutThumbnail;
+    //The News which were submitted before the styles were known.
+    private List<News> mPending;
+
+    public RowTextPrecomputer(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Take the paints and widths of the texts from a row which is not attached yet. The row is
+     * measured for the width of the list, once with and once without its thumbnail.
+     */
+    public void setTemplate(View row, View thumbnail, TextView title, TextView section,
+                            TextView date, TextView author, int listWidth) {
+        if (listWidth <= 0) {
+            return;
+        }
+        int widthSpec = View.MeasureSpec.makeMeasureSpec(listWidth, View.MeasureSpec.EXACTLY);
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        int thumbnailVisibility = thumbnail.getVisibility();
+
+        thumbnail.setVisibility(View.VISIBLE);
+        row.measure(widthSpec, heightSpec);
+        RowStyle withThumbnail = new RowStyle(title, section, date, author);
+        thumbnail.setVisibility(View.GONE);
+        row.measure(widthSpec, heightSpec);
+        RowStyle withoutThumbnail = new RowStyle(title, section, date, author);
+        thumbnail.setVisibility(thumbnailVisibility);
+        setTemplate(withThumbnail, withoutThumbnail);
+    }
+
+    /**
+     * Take the styles of the texts of a row with and without its thumbnail, e.g. from a
+     * {@link NewsRowView}.
+     */
+    public void setTemplate(RowStyle withThumbnail, RowStyle withoutThumbnail) {
+        if (!withThumbnail.equals(mStyleWithThumbnail)
+                || !withoutThumbnail.equals(mStyleWithoutThumbnail)) {
+            mStyleWithThumbnail = withThumbnail;
+            mStyleWithoutThumbnail = withoutThumbnail;
+            mRows.evictAll();
+        }
+        if (mPending != null) {
+            List<News> pending = mPending;
+            mPending = null;
+            precompute(pending);
+        }
+    }
+
+    //Return true once a row was measured.
+    public boolean hasTemplate() {
+        return mStyleWithThumbnail != null;
+    }
+
+    /**
+     * Lay out the texts of the News in the background, the News which are laid out already are
+     * skipped.
+     */
+    public void precompute(List<News> newsList) {
+        if (!hasTemplate()) {
+            mPending = new ArrayList<>(newsList);
+            return;
+        }
+        final List<News> missing = new ArrayList<>();
+        for (News news : newsList) {
+            if (get(news) == null) {
+                missing.add(news);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        final RowStyle withThumbnail = mStyleWithThumbnail;
+        final RowStyle withoutThumbnail = mStyleWithoutThumbnail;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (News news : missing) {
+                    boolean hasThumbnail = !news.getThumbnailUrl().equals(News.NO_THUMBNAIL);
+                    RowStyle style = hasThumbnail ? withThumbnail : withoutThumbnail;
+                    mRows.put(news.getUrl(), new RowText(news, style, formatDate(news)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Return the prepared texts of the News or null if they are not laid out yet or were laid
+     * out for other texts or widths.
+     */
+    public RowText get(News news) {
+        RowText rowText = mRows.get(news.getUrl());
+        if (rowText == null || !rowText.isFor(news)) {
+            return null;
+        }
+        boolean hasThumbnail = !news.getThumbnailUrl().equals(News.NO_THUMBNAIL);
+        RowStyle style = hasThumbnail ? mStyleWithThumbnail : mStyleWithoutThumbnail;
+        return rowText.mStyle == style ? rowText : null;
+    }
+
+    //Forget all layouts, e.g. when the memory is low.
+    public void clear() {
+        mRows.evictAll();
+    }
+
+    //Format the publication time for the date view.
+    private synchronized String formatDate(News news) {
+        if (news.getTimeInMillis() == News.NO_DATE) {
+            return NO_DATE;
+        }
+        mDate.setTime(news.getTimeInMillis());
+        return mDateFormat.format(mDate);
+    }
+
+    /**
+     * The texts of one row, laid out for the widths of its TextViews.
+     */
+    public static final class RowText {
+        private final News mNews;
+        private final RowStyle mStyle;
+        private final String mDate;
+        private final Layout mTitleLayout;
+        private final Layout mSectionLayout;
+        private final Layout mDateLayout;
+        private final Layout mAuthorLayout;
+
+        RowText(News news, RowStyle style, String date) {
+            mNews = news;
+            mStyle = style;
+            mDate = date;
+            mTitleLayout = style.title.layout(news.getTitle());
+            mSectionLayout = style.section.layout(news.getSection());
+            mDateLayout = style.date.layout(date);
+            mAuthorLayout = style.author.layout(news.getAuthor());
+        }
+
+        public String getDate() {
+            return mDate;
+        }
+
+        public Layout getTitleLayout() {
+            return mTitleLayout;
+        }
+
+        public Layout getSectionLayout() {
+            return mSectionLayout;
+        }
+
+        public Layout getDateLayout() {
+            return mDateLayout;
+        }
+
+        public Layout getAuthorLayout() {
+            return mAuthorLayout;
+        }
+
+        //Return true if the shown texts of the News are the ones which were laid out.
+        boolean isFor(News news) {
+            return news == mNews || (news.getTitle().equals(mNews.getTitle())
+                    && news.getSection().equals(mNews.getSection())
+                    && news.getTimeInMillis() == mNews.getTimeInMillis()
+                    && news.getAuthor().equals(mNews.getAuthor()));
+        }
+    }
+
+    /**
+     * The styles of the four texts of a row.
+     */
+    static final class RowStyle {
+        final TextStyle title;
+        final TextStyle section;
+        final TextStyle date;
+        final TextStyle author;
+
+        RowStyle(TextView title, TextView section, TextView date, TextView author) {
+            this(new TextStyle(title), new TextStyle(section), new TextStyle(date),
+                    new TextStyle(author));
+        }
+
+        RowStyle(TextStyle title, TextStyle section, TextStyle date, TextStyle author) {
+            this.title = title;
+            this.section = section;
+            this.date = date;
+            this.author = author;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RowStyle)) {
+                return false;
+            }
+            RowStyle style = (RowStyle) other;
+            return title.equals(style.title) && section.equals(style.section)
+                    && date.equals(style.date) && author.equals(style.author);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((title.hashCode() * 31 + section.hashCode()) * 31 + date.hashCode()) * 31
+                    + author.hashCode();
+        }
+    }
+
+    /**
+     * The paint, width and line settings of a measured TextView. The paint is a copy, so it is
+     * never changed by the main thread while a layout is built.
+     */
+    static final class TextStyle {
+        static final float DEFAULT_SPACING_MULTIPLIER = 1f;
+        static final float DEFAULT_SPACING_EXTRA = 0f;
+
+        final TextPaint paint;
+        final int width;
+        final Layout.Alignment alignment;
+        final float spacingMultiplier;
+        final float spacingExtra;
+        final boolean includePadding;
+
+        TextStyle(TextView textView) {
+            paint = new TextPaint(textView.getPaint());
+            width = Math.max(0, textView.getMeasuredWidth() - textView.getCompoundPaddingLeft()
+                    - textView.getCompoundPaddingRight());
+            alignment = alignmentOf(textView.getGravity());
+            spacingMultiplier = textView.getLineSpacingMultiplier();
+            spacingExtra = textView.getLineSpacingExtra();
+            includePadding = textView.getIncludeFontPadding();
+        }
+
+        //A style with the default line settings of a TextView.
+        TextStyle(TextPaint paint, int width, Layout.Alignment alignment) {
+            this.paint = new TextPaint(paint);
+            this.width = width;
+            this.alignment = alignment;
+            spacingMultiplier = DEFAULT_SPACING_MULTIPLIER;
+            spacingExtra = DEFAULT_SPACING_EXTRA;
+            includePadding = true;
+        }
+
+        Layout layout(CharSequence text) {
+            return new StaticLayout(text, paint, width, alignment, spacingMultiplier,
+                    spacingExtra, includePadding);
+        }
+
+        private static Layout.Alignment alignmentOf(int gravity) {
+            switch (gravity & Gravity.RELATIVE_HORIZONTAL_GRAVITY_MASK) {
+                case Gravity.CENTER_HORIZONTAL:
+                    return Layout.Alignment.ALIGN_CENTER;
+                case Gravity.RIGHT:
+                case Gravity.END:
+                    return Layout.Alignment.ALIGN_OPPOSITE;
+                default:
+                    return Layout.Alignment.ALIGN_NORMAL;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof TextStyle)) {
+                return false;
+            }
+            TextStyle style = (TextStyle) other;
+            return width == style.width && alignment == style.alignment
+                    && paint.getTextSize() == style.paint.getTextSize()
+                    && paint.getColor() == style.paint.getColor()
+                    && paint.isFakeBoldText() == style.paint.isFakeBoldText()
+                    && (paint.getTypeface() == null ? style.paint.getTypeface() == null
+                    : paint.getTypeface().equals(style.paint.getTypeface()))
+                    && spacingMultiplier == style.spacingMultiplier
+                    && spacingExtra == style.spacingExtra
+                    && includePadding == style.includePadding;
+        }
+
+        @Override
+        public int hashCode() {
+            return width * 31 + Float.floatToIntBits(paint.getTextSize());
+        }
+    }
+}
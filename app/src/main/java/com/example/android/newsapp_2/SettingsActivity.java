@@ -10,6 +10,8 @@ import android.support.v4.app.NavUtils;
 import android.support.v7.app.AppCompatActivity;
 import android.view.MenuItem;
 
+import com.example.android.newsapp_2.core.QuotaSource;
+
 public class SettingsActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,6 +34,16 @@ public class SettingsActivity extends AppCompatActivity {
             bindPreferenceSummaryToValue(keyWord);
         }
 
+        @Override
+        public void onResume() {
+            super.onResume();
+            // Show how many requests of the daily limit of the API key are left.
+            QuotaSource quotaSource =
+                    ((NewsApplication) getActivity().getApplication()).getQuotaSource();
+            Preference quota = findPreference(getString(R.string.settings_quota_key));
+            quota.setSummary(String.valueOf(quotaSource.getRemainingToday()));
+        }
+
         @Override
         public boolean onPreferenceChange(Preference preference, Object value) {
             // The code in this method takes care of updating the displayed preference summary
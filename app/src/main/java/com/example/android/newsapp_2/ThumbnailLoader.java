@@ -0,0 +1,258 @@
+package com.example.android.newsapp_2;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.example.android.newsapp_2.core.FetchCancellation;
+import com.example.android.newsapp_2.core.FetchException;
+import com.example.android.newsapp_2.core.ImageFetcher;
+import com.example.android.newsapp_2.core.NewsLog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the thumbnails of the News into ImageViews. The images are downloaded into the disk
+ * cache of the {@link ImageFetcher} and decoded on background threads, downsampled to the size
+ * of the view. The decoded bitmaps are kept in a memory cache which is limited to a part of the
+ * memory of the app.
+ * <p>
+ * All methods have to be called on the main thread. When a view is bound to another News its
+ * old load is canceled, so a scrolled list only loads the thumbnails which are shown.
+ */
+
+public class ThumbnailLoader {
+
+    public static final String LOG_TAG = ThumbnailLoader.class.getSimpleName();
+
+    //Name of the threads which download and decode the thumbnails.
+    private static final String THREAD_NAME = "Thumbnail-";
+    //The memory cache may use this part of the memory of the app.
+    private static final int MEMORY_CACHE_DIVIDER = 8;
+    private static final int BYTES_PER_KILOBYTE = 1024;
+
+    private final ImageFetcher mImageFetcher;
+    //Decoded thumbnails by their key, the size is counted in kilobytes.
+    private final LruCache<String, Bitmap> mMemoryCache;
+    private final ExecutorService mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    //The running loads by their key.
+    private final Map<String, Task> mTasks = new HashMap<>();
+
+    public ThumbnailLoader(Context context, ImageFetcher imageFetcher, int threads) {
+        mImageFetcher = imageFetcher;
+
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryKilobytes = activityManager.getMemoryClass() * BYTES_PER_KILOBYTE;
+        mMemoryCache = new LruCache<String, Bitmap>(memoryKilobytes / MEMORY_CACHE_DIVIDER) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / BYTES_PER_KILOBYTE;
+            }
+        };
+
+        mExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                //Decoding must not take the CPU from the main thread while the list scrolls.
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, THREAD_NAME + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Show the image of the url in the view, decoded for the given size in pixels. A previous
+     * load into the view is canceled.
+     */
+    public void load(String imageUrl, ImageView imageView, int width, int height) {
+        cancel(imageView);
+        String key = keyFor(imageUrl, width, height);
+        Bitmap bitmap = mMemoryCache.get(key);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+            return;
+        }
+
+        imageView.setImageDrawable(null);
+        Task task = start(key, imageUrl, width, height);
+        task.mTargets.add(imageView);
+        imageView.setTag(R.id.thumbnail_request, task);
+    }
+
+    /**
+     * Cancel the load into the view, e.g. because the view is recycled. The download is stopped
+     * if no other view waits for it and it is no prefetch.
+     */
+    public void cancel(ImageView imageView) {
+        Task task = (Task) imageView.getTag(R.id.thumbnail_request);
+        if (task == null) {
+            return;
+        }
+        imageView.setTag(R.id.thumbnail_request, null);
+        task.mTargets.remove(imageView);
+        if (task.mTargets.isEmpty() && !task.mPrefetch) {
+            mTasks.remove(task.mKey);
+            task.cancel();
+        }
+    }
+
+    /**
+     * Load the image into the memory cache before a view asks for it.
+     */
+    public void prefetch(String imageUrl, int width, int height) {
+        String key = keyFor(imageUrl, width, height);
+        if (mMemoryCache.get(key) == null) {
+            start(key, imageUrl, width, height).mPrefetch = true;
+        }
+    }
+
+    /**
+     * Release the memory cache when the system runs low on memory, see
+     * {@link ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            mMemoryCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            mMemoryCache.trimToSize(mMemoryCache.maxSize() / 2);
+        }
+    }
+
+    //Return the running load of the key or start a new one.
+    private Task start(String key, String imageUrl, int width, int height) {
+        Task task = mTasks.get(key);
+        if (task == null) {
+            task = new Task(key, imageUrl, width, height);
+            mTasks.put(key, task);
+            task.mFuture = mExecutor.submit(task);
+        }
+        return task;
+    }
+
+    private static String keyFor(String imageUrl, int width, int height) {
+        return imageUrl + "@" + width + "x" + height;
+    }
+
+    /**
+     * Decode the image with the smallest power of two sample size which keeps it at least as
+     * big as the requested size. Returns null if the file is no image.
+     */
+    private static Bitmap decode(File file, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width
+                && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        //Thumbnails have no transparency, so half of the memory of ARGB_8888 is enough.
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeFile(file.getPath(), options);
+    }
+
+    /**
+     * Downloads and decodes one image on a background thread and shows it in the views which
+     * wait for it on the main thread.
+     */
+    private final class Task implements Runnable {
+
+        final String mKey;
+        final String mImageUrl;
+        final int mWidth;
+        final int mHeight;
+        final FetchCancellation mCancellation = new FetchCancellation();
+        //Only used on the main thread.
+        final List<ImageView> mTargets = new ArrayList<>();
+        boolean mPrefetch;
+        Future<?> mFuture;
+
+        Task(String key, String imageUrl, int width, int height) {
+            mKey = key;
+            mImageUrl = imageUrl;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        @Override
+        public void run() {
+            Bitmap bitmap = null;
+            try {
+                File file = mImageFetcher.fetch(mImageUrl, mCancellation);
+                if (file != null && !mCancellation.isCanceled()) {
+                    bitmap = decode(file, mWidth, mHeight);
+                }
+            } catch (FetchException e) {
+                NewsLog.e(LOG_TAG, "Problem loading the thumbnail " + mImageUrl, e);
+            }
+
+            final Bitmap result = bitmap;
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(result);
+                }
+            });
+        }
+
+        //Called on the main thread.
+        void deliver(Bitmap bitmap) {
+            if (mTasks.get(mKey) != this) {
+                // Canceled.
+                return;
+            }
+            mTasks.remove(mKey);
+            if (bitmap != null) {
+                mMemoryCache.put(mKey, bitmap);
+            }
+            for (ImageView target : mTargets) {
+                target.setTag(R.id.thumbnail_request, null);
+                if (bitmap != null) {
+                    target.setImageBitmap(bitmap);
+                }
+            }
+            mTargets.clear();
+        }
+
+        //Called on the main thread.
+        void cancel() {
+            mCancellation.cancel();
+            if (mFuture != null) {
+                mFuture.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.android.newsapp_2.benchmark;
+
+import com.example.android.newsapp_2.core.DateConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Cost per News of the date conversion: the former two SimpleDateFormat objects per News
+ * compared with {@link DateConverter}.
+ */
+@State(Scope.Thread)
+public class DateBenchmark {
+
+    private static final String[] DATES = {
+            "2018-06-09T15:16:54Z", "2018-06-09T09:05:01Z", "2018-05-31T23:59:59Z",
+            "2018-01-01T00:00:00Z", "2017-12-24T18:30:00Z"};
+
+    private int index;
+
+    private String nextDate() {
+        index = (index + 1) % DATES.length;
+        return DATES[index];
+    }
+
+    @Benchmark
+    public String simpleDateFormatPerItem() throws ParseException {
+        SimpleDateFormat sourceDate = new SimpleDateFormat
+                ("yyyy-MM-dd'T'hh:mm:ss'Z'", Locale.UK);
+        SimpleDateFormat formattedDate = new SimpleDateFormat("dd.MM.yyyy " +
+                "\nHH:mm", Locale.UK);
+        return formattedDate.format(sourceDate.parse(nextDate()));
+    }
+
+    @Benchmark
+    public long dateConverter() {
+        return DateConverter.parseIso8601(nextDate());
+    }
+}
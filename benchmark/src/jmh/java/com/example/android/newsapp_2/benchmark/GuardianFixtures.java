@@ -0,0 +1,78 @@
+package com.example.android.newsapp_2.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Guardian search responses for the benchmarks. The results of the recorded response
+ * fixtures/search-10.json are repeated until the response has the requested size, every copy
+ * gets its own id and url.
+ */
+final class GuardianFixtures {
+
+    private static final String RECORDED_RESPONSE = "/fixtures/search-10.json";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private GuardianFixtures() {
+    }
+
+    /**
+     * Return the UTF-8 bytes of a response with the given number of results.
+     */
+    static byte[] response(int results) throws IOException {
+        JsonObject recorded = readRecorded();
+        JsonObject response = recorded.getAsJsonObject("response");
+        JsonArray recordedResults = response.getAsJsonArray("results");
+
+        JsonArray copies = new JsonArray();
+        for (int i = 0; i < results; i++) {
+            JsonObject copy = recordedResults.get(i % recordedResults.size())
+                    .getAsJsonObject().deepCopy();
+            int round = i / recordedResults.size();
+            if (round > 0) {
+                copy.addProperty("id", copy.get("id").getAsString() + "-" + round);
+                copy.addProperty("webUrl", copy.get("webUrl").getAsString() + "-" + round);
+                copy.addProperty("apiUrl", copy.get("apiUrl").getAsString() + "-" + round);
+            }
+            copies.add(copy);
+        }
+        response.add("results", copies);
+        response.addProperty("pageSize", results);
+        return recorded.toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Return the response compressed like a "Content-Encoding: gzip" body.
+     */
+    static byte[] gzip(byte[] response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        gzip.write(response);
+        gzip.close();
+        return bytes.toByteArray();
+    }
+
+    private static JsonObject readRecorded() throws IOException {
+        InputStream stream = GuardianFixtures.class.getResourceAsStream(RECORDED_RESPONSE);
+        if (stream == null) {
+            throw new IOException("Missing fixture " + RECORDED_RESPONSE);
+        }
+        Reader reader = new InputStreamReader(stream, UTF_8);
+        try {
+            JsonElement element = new JsonParser().parse(reader);
+            return element.getAsJsonObject();
+        } finally {
+            reader.close();
+        }
+    }
+}
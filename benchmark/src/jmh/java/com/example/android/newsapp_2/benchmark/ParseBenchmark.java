@@ -0,0 +1,46 @@
+package com.example.android.newsapp_2.benchmark;
+
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.NewsJsonParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Feeds Guardian responses of different sizes through the parsing pipeline of QueryUtils:
+ * the plain body as it is read from the connection and the gzip-compressed body which is
+ * decompressed while it is parsed.
+ */
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"10", "200", "5000"})
+    public int results;
+
+    private byte[] response;
+    private byte[] gzipResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = GuardianFixtures.response(results);
+        gzipResponse = GuardianFixtures.gzip(response);
+    }
+
+    @Benchmark
+    public List<News> parse() throws IOException {
+        return NewsJsonParser.parse(new ByteArrayInputStream(response));
+    }
+
+    @Benchmark
+    public List<News> decodeGzipAndParse() throws IOException {
+        return NewsJsonParser.parse(new GZIPInputStream(new ByteArrayInputStream(gzipResponse)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.android.newsapp_2.benchmark;
+
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.NewsIndex;
+import com.example.android.newsapp_2.core.NewsJsonParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Cost of an offline search in the {@link NewsIndex} with as many News as a full index holds,
+ * for a complete word and for the prefix of a word.
+ */
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    //Number of News the search returns, one page of the list.
+    private static final int LIMIT = 20;
+
+    @Param({"200", "5000"})
+    public int indexedNews;
+
+    private NewsIndex index;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<News> newsList = NewsJsonParser.parse(
+                new ByteArrayInputStream(GuardianFixtures.response(indexedNews)));
+        index = new NewsIndex(indexedNews);
+        index.addAll(newsList);
+    }
+
+    @Benchmark
+    public List<News> searchWord() {
+        return index.search("world", LIMIT);
+    }
+
+    @Benchmark
+    public List<News> searchPrefix() {
+        return index.search("pol", LIMIT);
+    }
+}
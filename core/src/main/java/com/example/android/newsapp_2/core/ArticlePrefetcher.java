@@ -0,0 +1,81 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the article bodies of the top News of a feed in the background, so they can be read
+ * without waiting for the network. The bodies are fetched with one request per query, see
+ * {@link ArticleSource}, and only if one of the top News of the query is not stored yet.
+ */
+
+public final class ArticlePrefetcher {
+
+    public static final String LOG_TAG = ArticlePrefetcher.class.getSimpleName();
+
+    private final NewsSource mSource;
+    private final ArticleStore mStore;
+    private final Executor mExecutor;
+
+    //The URLs which are fetched right now, a URL is not fetched twice at the same time.
+    private final Set<String> mRunning = new HashSet<>();
+
+    public ArticlePrefetcher(NewsSource source, ArticleStore store, Executor executor) {
+        mSource = source;
+        mStore = store;
+        mExecutor = executor;
+    }
+
+    /**
+     * Fetch the article URLs, which ask for the bodies of the top count News of every query.
+     * The URL of a query is skipped if all of its top News are stored already or nothing was
+     * loaded for it. queryResults are the News of the queries in the order of the URLs, see
+     * {@link FetchEngine.Request#getQueryResults()}.
+     */
+    public void prefetch(List<String> articleUrls, List<List<News>> queryResults,
+                         final int count) {
+        final List<String> urls = new ArrayList<>(articleUrls);
+        final List<List<News>> results = new ArrayList<>(queryResults);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < urls.size() && i < results.size(); i++) {
+                    List<News> newsList = results.get(i);
+                    if (newsList != null && !allStored(
+                            newsList.subList(0, Math.min(count, newsList.size())))) {
+                        fetch(urls.get(i));
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean allStored(List<News> newsList) {
+        for (News news : newsList) {
+            if (!mStore.contains(news.getUrl())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void fetch(String url) {
+        synchronized (mRunning) {
+            if (!mRunning.add(url)) {
+                return;
+            }
+        }
+        try {
+            mSource.fetch(url, new FetchCancellation());
+        } catch (FetchException e) {
+            NewsLog.e(LOG_TAG, "Problem prefetching the articles of " + url, e);
+        } finally {
+            synchronized (mRunning) {
+                mRunning.remove(url);
+            }
+        }
+    }
+}
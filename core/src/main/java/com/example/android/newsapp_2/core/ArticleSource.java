@@ -0,0 +1,31 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+
+/**
+ * Fetches a query URL which asks for the "body" field and stores the body of every article in
+ * the {@link ArticleStore}, so it can be read offline. Like every request to the API it should
+ * be wrapped in a {@link QuotaSource}.
+ */
+
+public final class ArticleSource implements NewsSource {
+
+    private final ArticleStore mStore;
+
+    public ArticleSource(ArticleStore store) {
+        mStore = store;
+    }
+
+    @Override
+    public List<News> fetch(String url, FetchCancellation cancellation)
+            throws FetchException {
+        return QueryUtils.fetchArticles(url, cancellation, new NewsJsonParser.ArticleCallback() {
+            @Override
+            public void onArticle(News news, String body) {
+                if (body != null) {
+                    mStore.put(news.getUrl(), body);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the HTML bodies of articles for offline reading, one gzip compressed file per article
+ * URL. The least recently read articles are removed when all files together get bigger than
+ * the maximum size.
+ */
+
+public final class ArticleStore {
+
+    public static final String LOG_TAG = ArticleStore.class.getSimpleName();
+
+    //Ending of temporary files which are written before they replace an article.
+    private static final String TEMP_FILE_ENDING = ".tmp";
+
+    //Version of the file format, articles with another version are ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final File mDirectory;
+    private final long mMaxSizeBytes;
+
+    //The file names of the stored articles, so contains() doesn't touch the disk. It is not
+    //guarded by the lock, the main thread must not wait for an article which is written.
+    private final Set<String> mNames =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile boolean mLoaded;
+
+    public ArticleStore(File directory, long maxSizeBytes) {
+        mDirectory = directory;
+        mMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Read which articles are stored, so {@link #contains(String)} answers from memory. It
+     * reads the directory, call it once in the background.
+     */
+    public void load() {
+        readNames();
+    }
+
+    /**
+     * Return true if the body of the article is stored, e.g. before the article is opened. It
+     * only checks the file if the store is not loaded yet.
+     */
+    public boolean contains(String url) {
+        String name = CacheFiles.nameFor(url);
+        if (mLoaded) {
+            return mNames.contains(name);
+        }
+        return new File(mDirectory, name).exists();
+    }
+
+    /**
+     * Return the stored body of the article or null if there is none.
+     */
+    public synchronized String get(String url) {
+        File file = fileFor(url);
+        if (!file.exists()) {
+            mNames.remove(file.getName());
+            return null;
+        }
+
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            // Ignore articles whose URL only has the same file name.
+            if (input.readInt() != FORMAT_VERSION || !url.equals(input.readUTF())) {
+                return null;
+            }
+            String body = readText(new GZIPInputStream(input));
+            // Mark the article as recently used.
+            file.setLastModified(System.currentTimeMillis());
+            return body;
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem reading the article.", e);
+            file.delete();
+            mNames.remove(file.getName());
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Store the body of the article and remove the least recently used articles.
+     */
+    public synchronized void put(String url, String body) {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            NewsLog.e(LOG_TAG, "Problem creating the article directory.");
+            return;
+        }
+
+        // Write into a temporary file first, so a half written article is never read.
+        File file = fileFor(url);
+        File tempFile = new File(mDirectory, file.getName() + TEMP_FILE_ENDING);
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)));
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(url);
+            GZIPOutputStream compressed = new GZIPOutputStream(output);
+            compressed.write(body.getBytes(UTF_8));
+            compressed.finish();
+            output.close();
+            output = null;
+            if (tempFile.renameTo(file)) {
+                mNames.add(file.getName());
+            } else {
+                NewsLog.e(LOG_TAG, "Problem storing the article.");
+            }
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem writing the article.", e);
+        } finally {
+            closeQuietly(output);
+            tempFile.delete();
+        }
+        CacheFiles.trimToSize(mDirectory, mMaxSizeBytes, TEMP_FILE_ENDING);
+        // The removed articles are not known, so the names are read again.
+        readNames();
+    }
+
+    private void readNames() {
+        Set<String> names = new HashSet<>();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.getName().endsWith(TEMP_FILE_ENDING)) {
+                    names.add(file.getName());
+                }
+            }
+        }
+        mNames.retainAll(names);
+        mNames.addAll(names);
+        mLoaded = true;
+    }
+
+    private File fileFor(String url) {
+        return new File(mDirectory, CacheFiles.nameFor(url));
+    }
+
+    private static String readText(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), UTF_8);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                NewsLog.e(LOG_TAG, "Problem closing the article.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Helpers for the caches which store one file per URL.
+ */
+
+final class CacheFiles {
+
+    //Algorithm and charset to build the file name from the URL.
+    private static final String KEY_DIGEST = "MD5";
+    private static final String KEY_CHARSET = "UTF-8";
+
+    private CacheFiles() {
+    }
+
+    /**
+     * Return the file name for the URL. The name is the hash of the URL, because the URL itself
+     * contains characters which are not allowed in file names.
+     */
+    static String nameFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(KEY_DIGEST);
+            byte[] hash = digest.digest(url.getBytes(Charset.forName(KEY_CHARSET)));
+            StringBuilder name = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16));
+                name.append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to provide MD5.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Remove the least recently used files of the directory until all files together fit the
+     * maximum size. Files with the temporary ending are being written and are kept.
+     */
+    static void trimToSize(File directory, long maxSizeBytes, String tempFileEnding) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                // Most recently used files first. Long.compare needs API level 19.
+                long difference = second.lastModified() - first.lastModified();
+                return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+            }
+        });
+
+        long totalSize = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(tempFileEnding)) {
+                continue;
+            }
+            totalSize += file.length();
+            if (totalSize > maxSizeBytes) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Stops sending requests to a server which failed too often in a row. After failureThreshold
+ * failures the circuit is open and no request is allowed for openMillis, or longer if the
+ * server asked for it with Retry-After. Then a single trial request is allowed: if it succeeds
+ * the circuit is closed again, if it fails the circuit opens again.
+ */
+
+public final class CircuitBreaker {
+
+    private final int mFailureThreshold;
+    private final long mOpenMillis;
+
+    //Number of failures in a row.
+    private int mFailures;
+    //No request is allowed before this time.
+    private long mOpenUntil;
+    //True while the trial request of a half open circuit is running.
+    private boolean mTrialRunning;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        mFailureThreshold = failureThreshold;
+        mOpenMillis = openMillis;
+    }
+
+    /**
+     * Return true if a request may be sent now. Every allowed request has to be finished with
+     * {@link #recordSuccess()}, {@link #recordFailure(long)} or {@link #release()}.
+     */
+    public synchronized boolean allowRequest() {
+        if (System.currentTimeMillis() < mOpenUntil) {
+            return false;
+        }
+        if (mFailures < mFailureThreshold) {
+            return true;
+        }
+        // Half open: only one request tries whether the server is back.
+        if (mTrialRunning) {
+            return false;
+        }
+        mTrialRunning = true;
+        return true;
+    }
+
+    /**
+     * The server answered, the circuit is closed.
+     */
+    public synchronized void recordSuccess() {
+        mFailures = 0;
+        mOpenUntil = 0;
+        mTrialRunning = false;
+    }
+
+    /**
+     * The request failed temporarily. retryAfterMillis is the delay the server asked for or
+     * {@link FetchException#NO_RETRY_AFTER}, it keeps the circuit open even below the threshold.
+     */
+    public synchronized void recordFailure(long retryAfterMillis) {
+        mFailures++;
+        mTrialRunning = false;
+        long openMillis = mFailures >= mFailureThreshold ? mOpenMillis : 0;
+        if (retryAfterMillis > openMillis) {
+            openMillis = retryAfterMillis;
+        }
+        if (openMillis > 0) {
+            mOpenUntil = System.currentTimeMillis() + openMillis;
+        }
+    }
+
+    /**
+     * The request was canceled without an answer, it tells nothing about the server.
+     */
+    public synchronized void release() {
+        mTrialRunning = false;
+    }
+
+    /**
+     * Return the milliseconds until a request is allowed again, 0 if the circuit is not open.
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return Math.max(0, mOpenUntil - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Counts the requests of the current day against a daily limit. The count is saved in a file,
+ * so it survives restarts of the process. A new day starts at midnight UTC.
+ * <p>
+ * The file is not written for every request: the count is saved every SAVE_EVERY_REQUESTS
+ * requests, when the limit is reached and with {@link #flush()}. Call {@link #load()} and
+ * {@link #flush()} on a background thread, else the first request reads the file.
+ */
+
+public final class DailyBudget {
+
+    public static final String LOG_TAG = DailyBudget.class.getSimpleName();
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    //Ending of the temporary file which is written before it replaces the saved count.
+    private static final String TEMP_FILE_ENDING = ".tmp";
+
+    //Version of the file format, a file with another version is ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    //At most this many requests are lost if the process is killed before a flush.
+    private static final int SAVE_EVERY_REQUESTS = 10;
+
+    private final File mFile;
+    private final int mDailyLimit;
+
+    //The day of the count in days since 1970 and the number of requests on that day.
+    private long mDay;
+    private int mUsed;
+    private boolean mLoaded;
+    //Requests which were counted after the last save.
+    private int mUnsaved;
+
+    public DailyBudget(File file, int dailyLimit) {
+        mFile = file;
+        mDailyLimit = dailyLimit;
+    }
+
+    /**
+     * Count a request if the limit of today is not reached. Returns false otherwise.
+     */
+    public synchronized boolean tryConsume() {
+        update();
+        if (mUsed >= mDailyLimit) {
+            return false;
+        }
+        mUsed++;
+        mUnsaved++;
+        if (mUnsaved >= SAVE_EVERY_REQUESTS || mUsed >= mDailyLimit) {
+            save();
+        }
+        return true;
+    }
+
+    /**
+     * Read the saved count unless it was read already.
+     */
+    public synchronized void load() {
+        if (!mLoaded) {
+            read();
+            mLoaded = true;
+        }
+    }
+
+    /**
+     * Write the count if requests were counted after the last save.
+     */
+    public synchronized void flush() {
+        if (mUnsaved > 0) {
+            save();
+        }
+    }
+
+    /**
+     * Return the number of requests which are left today.
+     */
+    public synchronized int getRemaining() {
+        update();
+        return Math.max(0, mDailyLimit - mUsed);
+    }
+
+    public int getDailyLimit() {
+        return mDailyLimit;
+    }
+
+    /**
+     * Return the milliseconds until the next day starts with a new budget.
+     */
+    public long getMillisUntilReset() {
+        long now = System.currentTimeMillis();
+        return (now / MILLIS_PER_DAY + 1) * MILLIS_PER_DAY - now;
+    }
+
+    /**
+     * Read the saved count the first time and start a new count when the day changed.
+     */
+    private void update() {
+        load();
+        long today = System.currentTimeMillis() / MILLIS_PER_DAY;
+        if (mDay != today) {
+            mDay = today;
+            mUsed = 0;
+        }
+    }
+
+    private void read() {
+        if (!mFile.exists()) {
+            return;
+        }
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+            if (input.readInt() == FORMAT_VERSION) {
+                mDay = input.readLong();
+                mUsed = input.readInt();
+            }
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem reading the request budget.", e);
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    private void save() {
+        mUnsaved = 0;
+        File directory = mFile.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            NewsLog.e(LOG_TAG, "Problem creating the directory of the request budget.");
+            return;
+        }
+
+        // Write into a temporary file first, so a half written count is never read.
+        File tempFile = new File(mFile.getPath() + TEMP_FILE_ENDING);
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)));
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(mDay);
+            output.writeInt(mUsed);
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(mFile)) {
+                NewsLog.e(LOG_TAG, "Problem storing the request budget.");
+            }
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem writing the request budget.", e);
+        } finally {
+            closeQuietly(output);
+            tempFile.delete();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                NewsLog.e(LOG_TAG, "Problem closing the request budget file.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Converts the "webPublicationDate" of the Guardian API, e.g. "2018-06-09T15:16:54Z", into
+ * milliseconds since the epoch. The fields are read at their fixed positions and the date is
+ * calculated directly, so no formatter is created and nothing is allocated. The class has no
+ * state and can be used from any thread.
+ */
+
+public final class DateConverter {
+
+    //Positions of the separators in "yyyy-MM-ddTHH:mm:ss".
+    private static final int YEAR_END = 4;
+    private static final int MONTH_END = 7;
+    private static final int DAY_END = 10;
+    private static final int HOUR_END = 13;
+    private static final int MINUTE_END = 16;
+    private static final int SECOND_END = 19;
+
+    //Separators of the ISO-8601 date.
+    private static final char DATE_SEPARATOR = '-';
+    private static final char DATE_TIME_SEPARATOR = 'T';
+    private static final char TIME_SEPARATOR = ':';
+    private static final char FRACTION_SEPARATOR = '.';
+    private static final char UTC = 'Z';
+
+    //Limits of the date and time fields.
+    private static final int MONTHS_PER_YEAR = 12;
+    private static final int FEBRUARY = 2;
+    private static final int DAYS_IN_FEBRUARY_OF_LEAP_YEAR = 29;
+    private static final int[] DAYS_PER_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    //Conversion factors to milliseconds.
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    //Number of digits of the milliseconds in a fraction of a second.
+    private static final int MILLIS_DIGITS = 3;
+
+    //Constants of the days from civil algorithm, see
+    //http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+    private static final int MARCH = 3;
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int YEARS_PER_ERA = 400;
+    private static final int DAYS_FROM_YEAR_0_TO_EPOCH = 719468;
+
+    //Returned by parseNumber() if a field has another char than a digit.
+    private static final int NOT_A_NUMBER = -1;
+
+    private DateConverter() {
+    }
+
+    /**
+     * Return the milliseconds since the epoch of the ISO-8601 UTC date or {@link News#NO_DATE}
+     * if the date is empty or has another format.
+     */
+    public static long parseIso8601(String date) {
+        if (date == null || date.length() <= SECOND_END) {
+            return News.NO_DATE;
+        }
+        if (date.charAt(YEAR_END) != DATE_SEPARATOR || date.charAt(MONTH_END) != DATE_SEPARATOR
+                || date.charAt(DAY_END) != DATE_TIME_SEPARATOR
+                || date.charAt(HOUR_END) != TIME_SEPARATOR
+                || date.charAt(MINUTE_END) != TIME_SEPARATOR) {
+            return News.NO_DATE;
+        }
+
+        int year = parseNumber(date, 0, YEAR_END);
+        int month = parseNumber(date, YEAR_END + 1, MONTH_END);
+        int day = parseNumber(date, MONTH_END + 1, DAY_END);
+        int hour = parseNumber(date, DAY_END + 1, HOUR_END);
+        int minute = parseNumber(date, HOUR_END + 1, MINUTE_END);
+        int second = parseNumber(date, MINUTE_END + 1, SECOND_END);
+        // A field with another char than a digit is NOT_A_NUMBER, so it fails the lower limit.
+        if (year == NOT_A_NUMBER || month < 1 || month > MONTHS_PER_YEAR || day < 1
+                || day > daysInMonth(year, month) || hour < 0 || hour >= HOURS_PER_DAY
+                || minute < 0 || minute >= MINUTES_PER_HOUR
+                || second < 0 || second >= SECONDS_PER_MINUTE) {
+            return News.NO_DATE;
+        }
+
+        // An optional fraction of a second, only the milliseconds are kept.
+        int position = SECOND_END;
+        int millis = 0;
+        if (date.charAt(position) == FRACTION_SEPARATOR) {
+            position++;
+            int digits = 0;
+            while (position < date.length() && isDigit(date.charAt(position))) {
+                if (digits < MILLIS_DIGITS) {
+                    millis = millis * 10 + (date.charAt(position) - '0');
+                    digits++;
+                }
+                position++;
+            }
+            if (digits == 0) {
+                return News.NO_DATE;
+            }
+            for (; digits < MILLIS_DIGITS; digits++) {
+                millis *= 10;
+            }
+        }
+        if (position != date.length() - 1 || date.charAt(position) != UTC) {
+            return News.NO_DATE;
+        }
+
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR
+                + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND + millis;
+    }
+
+    /**
+     * Return the number of days of the month, 1 is January.
+     */
+    private static int daysInMonth(int year, int month) {
+        boolean leapYear = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        return month == FEBRUARY && leapYear
+                ? DAYS_IN_FEBRUARY_OF_LEAP_YEAR : DAYS_PER_MONTH[month - 1];
+    }
+
+    /**
+     * Return the number of days between 1970-01-01 and the date of the proleptic Gregorian
+     * calendar.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        // Count the years from March, so the leap day is the last day of the year.
+        int y = month < MARCH ? year - 1 : year;
+        int era = y / YEARS_PER_ERA;
+        int yearOfEra = y - era * YEARS_PER_ERA;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * DAYS_PER_ERA + dayOfEra - DAYS_FROM_YEAR_0_TO_EPOCH;
+    }
+
+    /**
+     * Parse the decimal digits between start and end or return {@link #NOT_A_NUMBER} if there
+     * is another char.
+     */
+    private static int parseNumber(String date, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = date.charAt(i);
+            if (!isDigit(c)) {
+                return NOT_A_NUMBER;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
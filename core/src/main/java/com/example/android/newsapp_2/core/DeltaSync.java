@@ -0,0 +1,105 @@
+package com.example.android.newsapp_2.core;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Refreshes the first page of a query sorted by newest with only the News which were published
+ * since the last load. The request asks with the Guardian "from-date" parameter for the News
+ * from the day of the newest known News on, and the answer is merged on top of the known list.
+ * <p>
+ * If the answer doesn't reach back to the newest known News, more News were published than fit
+ * on a page and the answer replaces the known list, so the feed never has a gap.
+ */
+
+public final class DeltaSync {
+
+    //Query parameters of the Guardian API.
+    private static final String ORDER_BY_NEWEST = "order-by=newest";
+    private static final String PAGE_PARAMETER = "page=";
+    private static final String FIRST_PAGE = "1";
+    private static final String FROM_DATE_PARAMETER = "from-date=";
+
+    //The API accepts the from-date as a day in UTC.
+    private static final String FROM_DATE_PATTERN = "yyyy-MM-dd";
+
+    private DeltaSync() {
+    }
+
+    /**
+     * Return the URL which only asks for the News since the newest of the known list, or null
+     * if the query can't be refreshed that way: it is not the first page sorted by newest, it
+     * asks for a from-date itself or no known News has a date.
+     */
+    public static String deltaUrl(String url, List<News> known) {
+        if (known == null || !isFirstPageByNewest(url)) {
+            return null;
+        }
+        long newest = News.NO_DATE;
+        for (News news : known) {
+            newest = Math.max(newest, news.getTimeInMillis());
+        }
+        if (newest == News.NO_DATE) {
+            return null;
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat(FROM_DATE_PATTERN, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return url + (url.indexOf('?') < 0 ? "?" : "&") + FROM_DATE_PARAMETER
+                + format.format(new Date(newest));
+    }
+
+    /**
+     * Merge the News of the delta request on top of the known list. The result is as long as
+     * the longer of both lists. An empty delta, e.g. because the newest known News was removed,
+     * keeps the known list.
+     */
+    public static List<News> merge(List<News> known, List<News> delta) {
+        if (delta.isEmpty()) {
+            return known;
+        }
+        String newestKnownUrl = known.isEmpty() ? null : known.get(0).getUrl();
+        Set<String> urls = new HashSet<>();
+        for (News news : delta) {
+            urls.add(news.getUrl());
+        }
+        if (newestKnownUrl == null || !urls.contains(newestKnownUrl)) {
+            // There may be a gap between the delta and the known News.
+            return delta;
+        }
+
+        int size = Math.max(known.size(), delta.size());
+        List<News> merged = new ArrayList<>(size);
+        merged.addAll(delta);
+        for (int i = 0; i < known.size() && merged.size() < size; i++) {
+            if (urls.add(known.get(i).getUrl())) {
+                merged.add(known.get(i));
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isFirstPageByNewest(String url) {
+        int queryStart = url.indexOf('?');
+        if (queryStart < 0) {
+            return false;
+        }
+        boolean newest = false;
+        for (String parameter : url.substring(queryStart + 1).split("&")) {
+            if (parameter.equals(ORDER_BY_NEWEST)) {
+                newest = true;
+            } else if (parameter.startsWith(FROM_DATE_PARAMETER)
+                    || (parameter.startsWith(PAGE_PARAMETER)
+                    && !parameter.equals(PAGE_PARAMETER + FIRST_PAGE))) {
+                return false;
+            }
+        }
+        return newest;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Cancels a running fetch. The HTTP layer registers the response which is read right now, so
+ * {@link #cancel()} can close its socket and the blocked read of the fetch thread returns.
+ */
+
+public final class FetchCancellation {
+
+    private boolean mCanceled;
+    private HttpTransport.Response mResponse;
+    private Runnable mOnCancel;
+
+    /**
+     * Cancel the fetch and abort its connection. Calling it more than once has no effect.
+     */
+    public void cancel() {
+        HttpTransport.Response response;
+        Runnable onCancel;
+        synchronized (this) {
+            if (mCanceled) {
+                return;
+            }
+            mCanceled = true;
+            response = mResponse;
+            mResponse = null;
+            onCancel = mOnCancel;
+            mOnCancel = null;
+            // Wake up a sleeping fetch.
+            notifyAll();
+        }
+        if (response != null) {
+            response.abort();
+        }
+        if (onCancel != null) {
+            onCancel.run();
+        }
+    }
+
+    public synchronized boolean isCanceled() {
+        return mCanceled;
+    }
+
+    /**
+     * Wait for the given time, e.g. before a retry, unless the fetch is canceled. Returns false
+     * if it was canceled or the thread was interrupted.
+     */
+    synchronized boolean sleep(long millis) {
+        long end = System.currentTimeMillis() + millis;
+        long remaining = millis;
+        while (!mCanceled && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            remaining = end - System.currentTimeMillis();
+        }
+        return !mCanceled;
+    }
+
+    /**
+     * Register the response which is read right now or null when it is finished. If the fetch
+     * is already canceled the response is aborted immediately.
+     */
+    void setResponse(HttpTransport.Response response) {
+        synchronized (this) {
+            if (!mCanceled) {
+                mResponse = response;
+                return;
+            }
+        }
+        if (response != null) {
+            response.abort();
+        }
+    }
+
+    /**
+     * Set the action which is run once when the fetch is canceled or null to remove it. If the
+     * fetch is already canceled the action is run immediately.
+     */
+    void setOnCancel(Runnable onCancel) {
+        synchronized (this) {
+            if (!mCanceled) {
+                mOnCancel = onCancel;
+                return;
+            }
+        }
+        if (onCancel != null) {
+            onCancel.run();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the News of query URLs on a bounded thread pool. The last result of every URL is kept
+ * in memory: a new request gets it immediately and only goes to the network if it is older
+ * than the refresh interval. Without a result in memory the {@link NewsStore} is shown first
+ * and then revalidated from the {@link NewsSource}. A known list of a query sorted by newest is
+ * revalidated with only the News which are newer, see {@link DeltaSync}. Every request can be
+ * canceled, which also closes its connection.
+ */
+
+public class FetchEngine {
+
+    public static final String LOG_TAG = FetchEngine.class.getSimpleName();
+
+    //Name prefix of the threads of the pool.
+    private static final String THREAD_NAME = "FetchEngine-";
+
+    //Idle threads of the pool are stopped after this time.
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    //Maximum number of results which are kept in memory.
+    private static final int MAX_MEMORY_ENTRIES = 20;
+
+    /**
+     * Receives the results of a request. It is called on a thread of the pool or, for a result
+     * from memory, on the thread which started the request.
+     */
+    public interface Callback {
+        /**
+         * Called with the News of the URL. fresh is false for a result from the store or an
+         * old one from memory which is still being revalidated, the last delivery of a request
+         * is always fresh. newsList is null if nothing could be loaded.
+         */
+        void onNewsLoaded(String url, List<News> newsList, boolean fresh);
+    }
+
+    private final NewsSource mSource;
+    private final NewsStore mStore;
+    private final ExecutorService mExecutor;
+    private final long mRefreshIntervalMillis;
+
+    //The last fresh result of every URL, the least recently used one is removed first.
+    private final Map<String, Result> mMemory =
+            new LinkedHashMap<String, Result>(MAX_MEMORY_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                    return size() > MAX_MEMORY_ENTRIES;
+                }
+            };
+
+    /**
+     * Create an engine with the given number of threads. At most maxQueuedRequests wait for a
+     * thread, more requests are rejected and report null.
+     */
+    public FetchEngine(NewsSource source, NewsStore store, int threads, int maxQueuedRequests,
+                       long refreshIntervalMillis) {
+        mSource = source;
+        mStore = store;
+        mRefreshIntervalMillis = refreshIntervalMillis;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(maxQueuedRequests), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, THREAD_NAME + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        mExecutor = executor;
+    }
+
+    /**
+     * Load the News of the URL. A result from memory is delivered before this method returns.
+     */
+    public Request load(String url, Callback callback) {
+        return load(url, callback, false);
+    }
+
+    /**
+     * Load the News of the URL. With forceRefresh the network is asked even if the result in
+     * memory is recent.
+     */
+    public Request load(String url, Callback callback, boolean forceRefresh) {
+        Request request = new Request(url, callback);
+
+        Result remembered;
+        synchronized (mMemory) {
+            remembered = mMemory.get(url);
+        }
+        if (remembered != null) {
+            boolean recent = System.currentTimeMillis() - remembered.loadedAt
+                    < mRefreshIntervalMillis;
+            // An old result is shown until the fetch replaces it, only then it is final.
+            request.deliver(remembered.newsList, recent && !forceRefresh);
+            if (recent && !forceRefresh) {
+                return request;
+            }
+        }
+
+        try {
+            request.mFuture = mExecutor.submit(new FetchTask(request,
+                    remembered == null ? null : remembered.newsList));
+        } catch (RejectedExecutionException e) {
+            NewsLog.e(LOG_TAG, "Too many requests, dropped " + url, e);
+            request.deliver(remembered == null ? null : remembered.newsList, true);
+        }
+        return request;
+    }
+
+    /**
+     * Load the News of several query URLs and merge them into one feed sorted by time, see
+     * {@link NewsMerger}. Each query is sorted newest first if newestFirst is true and oldest
+     * first otherwise. At most maxParallel queries are loaded at the same time. The merged
+     * feed is delivered every time a query delivered, fresh is true when all of them are
+     * fresh. The url of the callback is the first URL. Canceling the returned request cancels
+     * the requests of all queries.
+     */
+    public Request loadAll(List<String> urls, int maxParallel, boolean newestFirst,
+                           Callback callback) {
+        if (urls.size() == 1) {
+            return load(urls.get(0), callback);
+        }
+        Request request = new Request(urls.isEmpty() ? null : urls.get(0), callback);
+        MergedFeed feed = new MergedFeed(request, urls, newestFirst);
+        request.mCancellation.setOnCancel(feed);
+        feed.start(Math.max(1, maxParallel));
+        return request;
+    }
+
+    /**
+     * Stop all threads, running requests are canceled.
+     */
+    public void shutdown() {
+        mExecutor.shutdownNow();
+    }
+
+    private void remember(String url, List<News> newsList) {
+        synchronized (mMemory) {
+            mMemory.put(url, new Result(newsList, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Reads the store if needed and then fetches the URL.
+     */
+    private final class FetchTask implements Runnable {
+
+        private final Request mRequest;
+        //The result in memory, if there is none the store is read.
+        private final List<News> mRemembered;
+        private final boolean mReadStore;
+
+        FetchTask(Request request, List<News> remembered) {
+            mRequest = request;
+            mRemembered = remembered;
+            mReadStore = remembered == null;
+        }
+
+        @Override
+        public void run() {
+            String url = mRequest.mUrl;
+            List<News> stored = null;
+            if (mReadStore) {
+                stored = mStore.get(url);
+                if (stored != null) {
+                    mRequest.deliver(stored, false);
+                }
+            }
+            if (mRequest.isCanceled()) {
+                return;
+            }
+
+            // Only the News which are newer than the known ones are fetched, if possible.
+            List<News> known = mReadStore ? stored : mRemembered;
+            String deltaUrl = DeltaSync.deltaUrl(url, known);
+            List<News> fetched;
+            try {
+                if (deltaUrl != null) {
+                    List<News> delta = mSource.fetch(deltaUrl, mRequest.mCancellation);
+                    fetched = delta == null ? null : DeltaSync.merge(known, delta);
+                } else {
+                    fetched = mSource.fetch(url, mRequest.mCancellation);
+                }
+            } catch (FetchException e) {
+                NewsLog.e(LOG_TAG, "Fetch failed, showing the cached News of " + url, e);
+                mRequest.mFailure = e;
+                fetched = null;
+            } catch (RuntimeException e) {
+                // A bug in the sources must not leave the request without its final result,
+                // a merged feed and a sync wait for it.
+                NewsLog.e(LOG_TAG, "Fetch crashed, showing the cached News of " + url, e);
+                mRequest.mFailure = new FetchException(FetchException.Kind.INVALID_RESPONSE,
+                        "Problem handling the News of " + url, e);
+                fetched = null;
+            }
+            if (fetched != null) {
+                mStore.put(url, fetched);
+                remember(url, fetched);
+                mRequest.mFetched = true;
+                mRequest.deliver(fetched, true);
+            } else if (!mRequest.isCanceled()) {
+                // The fetch failed, the known list (or null if there is none) stays the last
+                // word.
+                mRequest.deliver(known, true);
+            }
+        }
+    }
+
+    /**
+     * Loads the queries of a merged feed, only a limited number of them at the same time, and
+     * merges their results. Running it cancels the requests of the queries.
+     */
+    private final class MergedFeed implements Runnable {
+
+        private final Request mRequest;
+        private final List<String> mUrls;
+        private final boolean mNewestFirst;
+        //The last result of every query, null until it delivered.
+        private final List<List<News>> mResults;
+        private final boolean[] mFresh;
+        private final Request[] mRequests;
+        //Index of the next query which is loaded.
+        private int mNext;
+        private int mFreshCount;
+
+        MergedFeed(Request request, List<String> urls, boolean newestFirst) {
+            mRequest = request;
+            mUrls = new ArrayList<>(urls);
+            mNewestFirst = newestFirst;
+            mResults = new ArrayList<>(Collections.<List<News>>nCopies(urls.size(), null));
+            mFresh = new boolean[urls.size()];
+            mRequests = new Request[urls.size()];
+        }
+
+        synchronized void start(int maxParallel) {
+            if (mUrls.isEmpty()) {
+                mRequest.deliver(null, true);
+                return;
+            }
+            while (mNext < mUrls.size() && mNext < maxParallel) {
+                loadNext();
+            }
+        }
+
+        //Called with the lock held.
+        private void loadNext() {
+            final int index = mNext++;
+            // A result from memory is delivered before load returns, which may start the next
+            // query already.
+            mRequests[index] = load(mUrls.get(index), new Callback() {
+                @Override
+                public void onNewsLoaded(String url, List<News> newsList, boolean fresh) {
+                    onQueryLoaded(index, newsList, fresh);
+                }
+            });
+        }
+
+        private synchronized void onQueryLoaded(int index, List<News> newsList, boolean fresh) {
+            if (mRequest.isCanceled() || mFresh[index]) {
+                return;
+            }
+            mResults.set(index, newsList);
+            // Only the last delivery of a query is fresh, after it the query is finished.
+            if (fresh) {
+                mFresh[index] = true;
+                mFreshCount++;
+                // The failure of a query is the failure of the feed.
+                Request request = mRequests[index];
+                if (request != null && request.getFailure() != null) {
+                    mRequest.mFailure = request.getFailure();
+                }
+                // A query finished, so the next one may start.
+                if (mNext < mUrls.size()) {
+                    loadNext();
+                }
+            }
+
+            boolean anyLoaded = false;
+            for (int i = 0; i < mResults.size(); i++) {
+                anyLoaded |= mResults.get(i) != null;
+            }
+            boolean complete = mFreshCount == mUrls.size();
+            if (complete) {
+                for (Request request : mRequests) {
+                    mRequest.mFetched |= request != null && request.isFetched();
+                }
+                mRequest.mQueryResults = Collections.unmodifiableList(
+                        new ArrayList<>(mResults));
+            }
+            if (anyLoaded) {
+                mRequest.deliver(NewsMerger.merge(mResults, mNewestFirst), complete);
+            } else if (complete) {
+                mRequest.deliver(null, true);
+            }
+        }
+
+        @Override
+        public void run() {
+            Request[] requests;
+            synchronized (this) {
+                requests = mRequests.clone();
+            }
+            for (Request request : requests) {
+                if (request != null) {
+                    request.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * A running request. It delivers nothing after it was canceled.
+     */
+    public static final class Request {
+
+        private final String mUrl;
+        private final Callback mCallback;
+        private final FetchCancellation mCancellation = new FetchCancellation();
+        private volatile Future<?> mFuture;
+        private volatile FetchException mFailure;
+        //True if the final result was fetched from the network.
+        private volatile boolean mFetched;
+        //The final News of every query, set before the final result is delivered.
+        private volatile List<List<News>> mQueryResults;
+        //Start of the request for NewsMetrics, the latency is recorded with the first fresh
+        //result.
+        private final long mStartNanos = NewsMetrics.start();
+        private volatile boolean mLatencyRecorded;
+
+        Request(String url, Callback callback) {
+            mUrl = url;
+            mCallback = callback;
+        }
+
+        public String getUrl() {
+            return mUrl;
+        }
+
+        /**
+         * Cancel the request, e.g. because the query changed. A running fetch is stopped and
+         * its connection closed.
+         */
+        public void cancel() {
+            mCancellation.cancel();
+            Future<?> future = mFuture;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        public boolean isCanceled() {
+            return mCancellation.isCanceled();
+        }
+
+        /**
+         * Return why the last fetch failed or null if it did not fail. It is set before the
+         * cached result is delivered in place of the fetched one.
+         */
+        public FetchException getFailure() {
+            return mFailure;
+        }
+
+        /**
+         * Return true if the final result was fetched from the network and not taken from
+         * memory or the store. A merged feed is fetched if at least one of its queries was.
+         */
+        public boolean isFetched() {
+            return mFetched;
+        }
+
+        /**
+         * Return the final News of every query in the order of the URLs, an entry is null if
+         * nothing could be loaded for its query. It is null until the final result is
+         * delivered.
+         */
+        public List<List<News>> getQueryResults() {
+            return mQueryResults;
+        }
+
+        private void deliver(List<News> newsList, boolean fresh) {
+            if (isCanceled()) {
+                return;
+            }
+            if (fresh && mQueryResults == null) {
+                mQueryResults = Collections.singletonList(newsList);
+            }
+            if (fresh && !mLatencyRecorded) {
+                mLatencyRecorded = true;
+                NewsMetrics.recordSince(NewsMetrics.Metric.LOAD_LATENCY, mStartNanos);
+            }
+            mCallback.onNewsLoaded(mUrl, newsList, fresh);
+        }
+    }
+
+    private static final class Result {
+        final List<News> newsList;
+        final long loadedAt;
+
+        Result(List<News> newsList, long loadedAt) {
+            this.newsList = newsList;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.IOException;
+
+/**
+ * A failed fetch of the News of a query. The {@link Kind} tells whether the failure is
+ * temporary and whether the request can be retried.
+ */
+
+public class FetchException extends IOException {
+
+    //Version of the serialized form, exceptions are Serializable.
+    private static final long serialVersionUID = 1L;
+
+    //The response code if there was no HTTP response.
+    public static final int NO_RESPONSE_CODE = -1;
+
+    //The delay if the server did not ask for one.
+    public static final long NO_RETRY_AFTER = -1;
+
+    public enum Kind {
+        //The request URL is malformed.
+        INVALID_URL(false),
+        //The connection failed or broke while the response was read.
+        NETWORK(true),
+        //The server answered 429 Too Many Requests.
+        RATE_LIMITED(true),
+        //The server answered with a 5xx response code.
+        SERVER_ERROR(true),
+        //Any other response code which is not successful.
+        HTTP_ERROR(false),
+        //The response could not be read as News.
+        INVALID_RESPONSE(false),
+        //The requests are not sent because the server failed too often, see CircuitBreaker.
+        CIRCUIT_OPEN(false),
+        //The request was not sent because the limits of the API key are reached, see
+        //QuotaSource.
+        QUOTA_EXCEEDED(false);
+
+        private final boolean mRetryable;
+
+        Kind(boolean retryable) {
+            mRetryable = retryable;
+        }
+
+        public boolean isRetryable() {
+            return mRetryable;
+        }
+    }
+
+    private final Kind mKind;
+    private final int mResponseCode;
+    private final long mRetryAfterMillis;
+
+    public FetchException(Kind kind, String message) {
+        this(kind, message, NO_RESPONSE_CODE, NO_RETRY_AFTER, null);
+    }
+
+    public FetchException(Kind kind, String message, Throwable cause) {
+        this(kind, message, NO_RESPONSE_CODE, NO_RETRY_AFTER, cause);
+    }
+
+    public FetchException(Kind kind, String message, int responseCode, long retryAfterMillis,
+                          Throwable cause) {
+        super(message, cause);
+        mKind = kind;
+        mResponseCode = responseCode;
+        mRetryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Return the failure of the HTTP response code, which is not successful.
+     */
+    static FetchException forResponseCode(int responseCode, long retryAfterMillis) {
+        Kind kind;
+        if (responseCode == 429) {
+            kind = Kind.RATE_LIMITED;
+        } else if (responseCode >= 500 && responseCode < 600) {
+            kind = Kind.SERVER_ERROR;
+        } else {
+            kind = Kind.HTTP_ERROR;
+        }
+        return new FetchException(kind, "Error response code: " + responseCode, responseCode,
+                retryAfterMillis, null);
+    }
+
+    public Kind getKind() {
+        return mKind;
+    }
+
+    public boolean isRetryable() {
+        return mKind.isRetryable();
+    }
+
+    /**
+     * Return the response code of the failed response or {@link #NO_RESPONSE_CODE}.
+     */
+    public int getResponseCode() {
+        return mResponseCode;
+    }
+
+    /**
+     * Return the milliseconds the server asked to wait with its Retry-After header or
+     * {@link #NO_RETRY_AFTER}.
+     */
+    public long getRetryAfterMillis() {
+        return mRetryAfterMillis;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Sends the HTTP requests of {@link QueryUtils}. The default implementation is
+ * {@link UrlConnectionTransport}, tests can replace it with a fake one.
+ */
+
+public interface HttpTransport {
+
+    /**
+     * Send a GET request with the given headers to the URL. The returned {@link Response} has to
+     * be closed, so the connection can be reused.
+     */
+    Response get(URL url, Map<String, String> headers) throws IOException;
+
+    /**
+     * The status, headers and body of a response.
+     */
+    interface Response extends Closeable {
+
+        int getResponseCode() throws IOException;
+
+        /**
+         * Return the value of the header or null if the response has no such header.
+         */
+        String getHeader(String name);
+
+        /**
+         * Return the body of a successful response as it was received, a compressed body is not
+         * decompressed.
+         */
+        InputStream getBody() throws IOException;
+
+        /**
+         * Close the connection without reading the rest of the body. It can be called from
+         * another thread to stop a blocked read, the connection is not reused.
+         */
+        void abort();
+    }
+}
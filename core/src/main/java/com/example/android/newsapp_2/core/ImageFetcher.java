@@ -0,0 +1,151 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+
+/**
+ * Downloads images, e.g. the thumbnails of the News, into a disk cache. An image is only
+ * downloaded once, later requests get the file from the disk. The least recently used images
+ * are removed when all images together get bigger than the maximum size.
+ */
+
+public final class ImageFetcher {
+
+    public static final String LOG_TAG = ImageFetcher.class.getSimpleName();
+
+    //Response code of a successful download.
+    private static final int HTTP_OK = 200;
+
+    //Ending of temporary files which are written before they become a cached image.
+    private static final String TEMP_FILE_ENDING = ".tmp";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final File mDirectory;
+    private final long mMaxSizeBytes;
+    private final HttpTransport mTransport;
+
+    public ImageFetcher(File directory, long maxSizeBytes) {
+        this(directory, maxSizeBytes, new UrlConnectionTransport());
+    }
+
+    ImageFetcher(File directory, long maxSizeBytes, HttpTransport transport) {
+        mDirectory = directory;
+        mMaxSizeBytes = maxSizeBytes;
+        mTransport = transport;
+    }
+
+    /**
+     * Return the file of the image, it is downloaded first if it is not on the disk yet.
+     * Returns null if the download was canceled.
+     *
+     * @throws FetchException if the download failed
+     */
+    public File fetch(String imageUrl, FetchCancellation cancellation) throws FetchException {
+        File file = new File(mDirectory, CacheFiles.nameFor(imageUrl));
+        synchronized (this) {
+            if (file.exists()) {
+                // Mark the image as recently used.
+                file.setLastModified(System.currentTimeMillis());
+                return file;
+            }
+            if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+                throw new FetchException(FetchException.Kind.NETWORK,
+                        "Problem creating the image directory.");
+            }
+        }
+
+        if (!download(imageUrl, file, cancellation)) {
+            return null;
+        }
+        trim();
+        return file;
+    }
+
+    /**
+     * Download the image into the file. Returns false if it was canceled.
+     */
+    private boolean download(String imageUrl, File file, FetchCancellation cancellation)
+            throws FetchException {
+        URL url;
+        try {
+            url = new URL(imageUrl);
+        } catch (MalformedURLException e) {
+            throw new FetchException(FetchException.Kind.INVALID_URL,
+                    "Problem building the URL " + imageUrl, e);
+        }
+
+        // Every download writes its own temporary file, the same image may be downloaded
+        // twice at the same time.
+        File tempFile = new File(mDirectory, file.getName() + "."
+                + Thread.currentThread().getId() + TEMP_FILE_ENDING);
+        HttpTransport.Response response = null;
+        OutputStream output = null;
+        try {
+            response = mTransport.get(url, Collections.<String, String>emptyMap());
+            cancellation.setResponse(response);
+            int responseCode = response.getResponseCode();
+            if (responseCode != HTTP_OK) {
+                throw FetchException.forResponseCode(responseCode,
+                        FetchException.NO_RETRY_AFTER);
+            }
+
+            InputStream input = response.getBody();
+            output = new FileOutputStream(tempFile);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            output.close();
+            output = null;
+            if (!cancellation.isCanceled() && !tempFile.renameTo(file)) {
+                NewsLog.e(LOG_TAG, "Problem storing the image.");
+            }
+        } catch (FetchException e) {
+            throw e;
+        } catch (IOException e) {
+            // An aborted connection fails the read, that is no failure of the download.
+            if (!cancellation.isCanceled()) {
+                throw new FetchException(FetchException.Kind.NETWORK,
+                        "Problem downloading the image " + imageUrl, e);
+            }
+        } finally {
+            cancellation.setResponse(null);
+            closeQuietly(output);
+            tempFile.delete();
+            if (response != null) {
+                if (cancellation.isCanceled()) {
+                    response.abort();
+                } else {
+                    closeQuietly(response);
+                }
+            }
+        }
+        return !cancellation.isCanceled();
+    }
+
+    /**
+     * Remove the least recently used images until all images together fit the maximum size.
+     */
+    private synchronized void trim() {
+        CacheFiles.trimToSize(mDirectory, mMaxSizeBytes, TEMP_FILE_ENDING);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                NewsLog.e(LOG_TAG, "Problem closing the image.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+
+/**
+ * Adds the News fetched by the wrapped {@link NewsSource} to a {@link NewsIndex}, so later
+ * searches find them without the network.
+ */
+
+public final class IndexingSource implements NewsSource {
+
+    private final NewsSource mSource;
+    private final NewsIndex mIndex;
+
+    public IndexingSource(NewsSource source, NewsIndex index) {
+        mSource = source;
+        mIndex = index;
+    }
+
+    @Override
+    public List<News> fetch(String url, FetchCancellation cancellation)
+            throws FetchException {
+        List<News> newsList = mSource.fetch(url, cancellation);
+        if (newsList != null) {
+            mIndex.addAll(newsList);
+        }
+        return newsList;
+    }
+}
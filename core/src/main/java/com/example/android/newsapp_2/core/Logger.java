@@ -0,0 +1,26 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Receives the log messages of the core module. The app forwards them to android.util.Log,
+ * on the JVM they can be printed or dropped.
+ */
+
+public interface Logger {
+
+    void info(String tag, String message);
+
+    void error(String tag, String message, Throwable throwable);
+
+    /**
+     * Logger which drops all messages.
+     */
+    Logger NONE = new Logger() {
+        @Override
+        public void info(String tag, String message) {
+        }
+
+        @Override
+        public void error(String tag, String message, Throwable throwable) {
+        }
+    };
+}
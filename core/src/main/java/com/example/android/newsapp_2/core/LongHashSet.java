@@ -0,0 +1,134 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.Arrays;
+
+/**
+ * A set of longs in one array with open addressing and linear probing. Unlike a
+ * {@code HashSet<Long>} no value is boxed, so {@link #contains} never allocates and every entry
+ * takes eight to sixteen bytes. The value 0 marks an empty slot, it is kept in a flag.
+ * <p>
+ * The set is not thread safe.
+ */
+
+public final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+    //The table is doubled when it is more than half full, so the probe sequences stay short.
+    private static final int MAX_LOAD_DIVIDER = 2;
+    private static final long EMPTY = 0L;
+    //The golden ratio, multiplying by it spreads the hashes which only differ in high bits.
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private long[] mKeys;
+    private int mSize;
+    private boolean mHasEmptyKey;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    //Create a set which holds the expected number of values without growing.
+    public LongHashSet(int expectedSize) {
+        mKeys = new long[tableSizeFor(expectedSize)];
+    }
+
+    /**
+     * Add the value. Returns false if it was in the set already.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (mHasEmptyKey) {
+                return false;
+            }
+            mHasEmptyKey = true;
+            mSize++;
+            return true;
+        }
+        int mask = mKeys.length - 1;
+        int slot = slotOf(value, mask);
+        while (mKeys[slot] != EMPTY) {
+            if (mKeys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mKeys[slot] = value;
+        mSize++;
+        if (mSize * MAX_LOAD_DIVIDER > mKeys.length) {
+            resize(mKeys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return mHasEmptyKey;
+        }
+        int mask = mKeys.length - 1;
+        int slot = slotOf(value, mask);
+        long key;
+        while ((key = mKeys[slot]) != EMPTY) {
+            if (key == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        Arrays.fill(mKeys, EMPTY);
+        mSize = 0;
+        mHasEmptyKey = false;
+    }
+
+    /**
+     * Return the values in no particular order.
+     */
+    public long[] toArray() {
+        long[] values = new long[mSize];
+        int index = 0;
+        if (mHasEmptyKey) {
+            values[index++] = EMPTY;
+        }
+        for (long key : mKeys) {
+            if (key != EMPTY) {
+                values[index++] = key;
+            }
+        }
+        return values;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = mKeys;
+        mKeys = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int slot = slotOf(key, mask);
+                while (mKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                mKeys[slot] = key;
+            }
+        }
+    }
+
+    private static int slotOf(long value, int mask) {
+        long mixed = value * MIX;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    //Return the power of two table size which keeps the expected size at most half full.
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * MAX_LOAD_DIVIDER) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes which are read from the wrapped stream and the time spent waiting for them,
+ * see {@link NewsMetrics}.
+ */
+
+final class MeteredInputStream extends FilterInputStream {
+
+    //Integer returned by InputStream.read() at the end of the stream.
+    private static final int END_OF_STREAM = -1;
+
+    private long mBytes;
+    private long mReadNanos;
+
+    MeteredInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int value = super.read();
+        mReadNanos += System.nanoTime() - start;
+        if (value != END_OF_STREAM) {
+            mBytes++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        int read = super.read(buffer, offset, length);
+        mReadNanos += System.nanoTime() - start;
+        if (read > 0) {
+            mBytes += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long start = System.nanoTime();
+        long skipped = super.skip(count);
+        mReadNanos += System.nanoTime() - start;
+        mBytes += skipped;
+        return skipped;
+    }
+
+    long getBytes() {
+        return mBytes;
+    }
+
+    long getReadNanos() {
+        return mReadNanos;
+    }
+}
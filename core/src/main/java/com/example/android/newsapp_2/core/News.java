@@ -0,0 +1,150 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable news article. The section is only kept as the id of the {@link Sections}
+ * table, the publication time as a primitive and an unknown author or thumbnail as the shared
+ * {@link #NO_AUTHOR} and {@link #NO_THUMBNAIL}. Lists of News can be written to and read from
+ * a compact binary form.
+ */
+
+public final class News {
+
+    //Value of the publication time if the date is unknown.
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    //Shared value of the author if the byline is unknown.
+    public static final String NO_AUTHOR = "";
+
+    //Shared value of the thumbnail url if the News has no thumbnail.
+    public static final String NO_THUMBNAIL = "";
+
+    //Value of the url hash before it was computed.
+    private static final long HASH_NOT_COMPUTED = 0L;
+
+    private final String mTitle;
+    private final int mSectionId;
+    private final long mTimeInMillis;
+    private final String mAuthor;
+    private final String mUrl;
+    private final String mThumbnailUrl;
+
+    //Hash of the url, it is only computed when it is used the first time.
+    private volatile long mUrlHash = HASH_NOT_COMPUTED;
+
+
+    public News(String title, String section, long timeInMillis, String author, String url) {
+        this(title, section, timeInMillis, author, url, NO_THUMBNAIL);
+    }
+
+    public News(String title, String section, long timeInMillis, String author, String url,
+                String thumbnailUrl) {
+        mTitle = title;
+        mSectionId = Sections.idOf(section);
+        mTimeInMillis = timeInMillis;
+        mAuthor = author.length() == 0 ? NO_AUTHOR : author;
+        mUrl = url;
+        mThumbnailUrl = thumbnailUrl.length() == 0 ? NO_THUMBNAIL : thumbnailUrl;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public String getSection() {
+        return Sections.nameOf(mSectionId);
+    }
+
+    //Return the id of the section in the Sections table.
+    public int getSectionId() {
+        return mSectionId;
+    }
+
+    //Return the publication time in milliseconds since the epoch or NO_DATE.
+    public long getTimeInMillis() {
+        return mTimeInMillis;
+    }
+
+    public String getAuthor() {
+        return mAuthor;
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    //Return the url of the thumbnail image or NO_THUMBNAIL.
+    public String getThumbnailUrl() {
+        return mThumbnailUrl;
+    }
+
+    //Return the 64-bit hash of the url, see UrlHash.
+    public long getUrlHash() {
+        // Computing the hash twice from two threads gives the same value, so no lock is needed.
+        long hash = mUrlHash;
+        if (hash == HASH_NOT_COMPUTED) {
+            hash = UrlHash.hash64(mUrl);
+            mUrlHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Write the list. Every section name is only written once, the News refer to it by index.
+     */
+    public static void writeList(DataOutput output, List<News> newsList) throws IOException {
+        Map<Integer, Integer> sectionIndexes = new HashMap<>();
+        List<String> sectionNames = new ArrayList<>();
+        for (News news : newsList) {
+            if (!sectionIndexes.containsKey(news.mSectionId)) {
+                sectionIndexes.put(news.mSectionId, sectionNames.size());
+                sectionNames.add(news.getSection());
+            }
+        }
+
+        output.writeInt(sectionNames.size());
+        for (String sectionName : sectionNames) {
+            output.writeUTF(sectionName);
+        }
+        output.writeInt(newsList.size());
+        for (News news : newsList) {
+            output.writeUTF(news.mTitle);
+            output.writeInt(sectionIndexes.get(news.mSectionId));
+            output.writeLong(news.mTimeInMillis);
+            output.writeUTF(news.mAuthor);
+            output.writeUTF(news.mUrl);
+            output.writeUTF(news.mThumbnailUrl);
+        }
+    }
+
+    /**
+     * Read a list written by {@link #writeList(DataOutput, List)}.
+     */
+    public static List<News> readList(DataInput input) throws IOException {
+        int sectionCount = input.readInt();
+        String[] sectionNames = new String[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            sectionNames[i] = input.readUTF();
+        }
+        int count = input.readInt();
+        List<News> newsList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = input.readUTF();
+            int sectionIndex = input.readInt();
+            if (sectionIndex < 0 || sectionIndex >= sectionCount) {
+                throw new IOException("Unknown section " + sectionIndex);
+            }
+            newsList.add(new News(title, sectionNames[sectionIndex], input.readLong(),
+                    input.readUTF(), input.readUTF(), input.readUTF()));
+        }
+        return newsList;
+    }
+
+}
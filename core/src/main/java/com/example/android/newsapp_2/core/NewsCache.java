@@ -0,0 +1,217 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Stores the list of {@link News} of every query on the disk, so it can be shown before the
+ * network answered. The entries are keyed by the complete query URL, expire after
+ * {@link #MAX_AGE_MILLIS} and the least recently used entries are removed when there are too
+ * many or they get too big.
+ */
+
+public class NewsCache implements NewsStore {
+
+    public static final String LOG_TAG = NewsCache.class.getSimpleName();
+
+    //Ending of temporary files which are written before they replace an entry.
+    private static final String TEMP_FILE_ENDING = ".tmp";
+
+    //Entries older than one day are not shown anymore.
+    private static final long MAX_AGE_MILLIS = 24 * 60 * 60 * 1000L;
+
+    //Limits for the number of entries and the size of all entries together.
+    private static final int MAX_ENTRIES = 30;
+    private static final long MAX_SIZE_BYTES = 2 * 1024 * 1024L;
+
+    //Version of the file format, entries with another version are ignored.
+    private static final int FORMAT_VERSION = 4;
+
+    /**
+     * Tells the current time, tests replace it to let the entries expire.
+     */
+    interface Clock {
+        long now();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long now() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private final File mDirectory;
+    private final Clock mClock;
+
+    public NewsCache(File directory) {
+        this(directory, SYSTEM_CLOCK);
+    }
+
+    NewsCache(File directory, Clock clock) {
+        mDirectory = directory;
+        mClock = clock;
+    }
+
+    @Override
+    public synchronized List<News> get(String url) {
+        File file = fileFor(url);
+        if (!file.exists()) {
+            return null;
+        }
+
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            long savedAt = input.readLong();
+            // Ignore entries which are too old or whose URL only has the same file name.
+            if (mClock.now() - savedAt > MAX_AGE_MILLIS
+                    || !url.equals(input.readUTF())) {
+                return null;
+            }
+            List<News> newsList = News.readList(input);
+            // Mark the entry as recently used.
+            file.setLastModified(mClock.now());
+            return newsList;
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem reading the cached news.", e);
+            file.delete();
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Return the News of all entries which are not expired, e.g. to index them.
+     */
+    public synchronized List<News> getAll() {
+        List<News> allNews = new ArrayList<>();
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return allNews;
+        }
+
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_ENDING)) {
+                continue;
+            }
+            DataInputStream input = null;
+            try {
+                input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                if (input.readInt() != FORMAT_VERSION
+                        || mClock.now() - input.readLong() > MAX_AGE_MILLIS) {
+                    continue;
+                }
+                input.readUTF();
+                allNews.addAll(News.readList(input));
+            } catch (IOException e) {
+                NewsLog.e(LOG_TAG, "Problem reading the cached news.", e);
+            } finally {
+                closeQuietly(input);
+            }
+        }
+        return allNews;
+    }
+
+    /**
+     * Store the list of {@link News} for the URL and remove old entries.
+     */
+    @Override
+    public synchronized void put(String url, List<News> newsList) {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            NewsLog.e(LOG_TAG, "Problem creating the cache directory.");
+            return;
+        }
+
+        // Write into a temporary file first, so a half written entry is never read.
+        File file = fileFor(url);
+        File tempFile = new File(mDirectory, file.getName() + TEMP_FILE_ENDING);
+        DataOutputStream output = null;
+        long now = mClock.now();
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)));
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(now);
+            output.writeUTF(url);
+            News.writeList(output, newsList);
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(file)) {
+                NewsLog.e(LOG_TAG, "Problem storing the cached news.");
+            }
+            // The time of use is the time of the clock, like the one of a read entry.
+            file.setLastModified(now);
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem writing the cached news.", e);
+        } finally {
+            closeQuietly(output);
+            tempFile.delete();
+        }
+
+        trim();
+    }
+
+    /**
+     * Remove expired entries and then the least recently used ones until the limits are met.
+     */
+    private void trim() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                // Most recently used files first. Long.compare needs API level 19.
+                long difference = second.lastModified() - first.lastModified();
+                return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+            }
+        });
+
+        long now = mClock.now();
+        long totalSize = 0;
+        int entries = 0;
+        for (File file : files) {
+            totalSize += file.length();
+            entries++;
+            if (entries > MAX_ENTRIES || totalSize > MAX_SIZE_BYTES
+                    || now - file.lastModified() > MAX_AGE_MILLIS) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Return the file of the entry for the URL.
+     */
+    private File fileFor(String url) {
+        return new File(mDirectory, CacheFiles.nameFor(url));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                NewsLog.e(LOG_TAG, "Problem closing the cache file.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over the title, section and author of the {@link News} which were
+ * loaded, so a search can be answered without the network. News are added one by one as they
+ * arrive, a News whose URL is indexed already is skipped.
+ * <p>
+ * Every word of the indexed fields points to a compact list of postings. A posting is the id
+ * of the News and the weight of the fields which contain the word. A search returns the News
+ * which contain every query word as a word or as the prefix of a word and ranks them by the
+ * summed weights, then by their date. {@link #searchAny(List, int)} returns the News which
+ * match any of several queries.
+ */
+
+public final class NewsIndex {
+
+    //Weight of a word in the title, the section and the author.
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SECTION_WEIGHT = 2;
+    private static final int AUTHOR_WEIGHT = 1;
+
+    //A posting stores the weight in its lowest bits and the id of the News above them.
+    private static final int WEIGHT_BITS = 3;
+    private static final int WEIGHT_MASK = (1 << WEIGHT_BITS) - 1;
+
+    //A word matches a query word completely or as its prefix, a complete match counts more.
+    private static final int EXACT_MATCH_FACTOR = 2;
+
+    //Words shorter than this are not indexed.
+    private static final int MIN_WORD_LENGTH = 2;
+
+    private static final int INITIAL_POSTINGS = 4;
+
+    private final int mMaxDocuments;
+
+    //The indexed News by their id, the id is the position in the list.
+    private final List<News> mDocuments = new ArrayList<>();
+    private final Set<String> mUrls = new HashSet<>();
+    //The postings of every word, sorted so all words with a prefix are found together.
+    private final TreeMap<String, Postings> mPostings = new TreeMap<>();
+
+    /**
+     * Create an index for at most maxDocuments News. When there are more, the older half of
+     * the News is removed.
+     */
+    public NewsIndex(int maxDocuments) {
+        mMaxDocuments = Math.max(1, maxDocuments);
+    }
+
+    public synchronized void addAll(Collection<News> newsList) {
+        for (News news : newsList) {
+            add(news);
+        }
+    }
+
+    public synchronized void add(News news) {
+        if (mUrls.contains(news.getUrl())) {
+            return;
+        }
+        if (mDocuments.size() >= mMaxDocuments) {
+            removeOlderHalf();
+        }
+        mUrls.add(news.getUrl());
+        index(news);
+    }
+
+    public synchronized int size() {
+        return mDocuments.size();
+    }
+
+    /**
+     * Return at most limit News which match every word of the query, the best match first.
+     */
+    public List<News> search(String query, int limit) {
+        return searchAny(Collections.singletonList(query), limit);
+    }
+
+    /**
+     * Return at most limit News which match every word of at least one of the queries, e.g.
+     * the keywords of a feed which is the union of several queries. The scores of all matched
+     * queries are summed, the best match comes first.
+     */
+    public List<News> searchAny(List<String> queries, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<List<String>> queryWords = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            List<String> words = new ArrayList<>();
+            tokenize(query, words);
+            if (!words.isEmpty()) {
+                // A repeated query word must not be counted as a second match.
+                queryWords.add(new ArrayList<>(new LinkedHashSet<>(words)));
+            }
+        }
+        if (queryWords.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        //The summed scores of the matched queries, every match scores at least 1.
+        final int[] totals;
+        final List<News> documents;
+        synchronized (this) {
+            totals = new int[mDocuments.size()];
+            int[] scores = new int[mDocuments.size()];
+            //The number of query words which matched a News.
+            int[] matchedWords = new int[mDocuments.size()];
+            for (List<String> words : queryWords) {
+                Arrays.fill(scores, 0);
+                Arrays.fill(matchedWords, 0);
+                score(words, scores, matchedWords);
+                for (int id = 0; id < totals.length; id++) {
+                    if (matchedWords[id] == words.size()) {
+                        totals[id] += scores[id];
+                    }
+                }
+            }
+            documents = new ArrayList<>(mDocuments);
+        }
+
+        // Keep the best limit ids sorted, the list is short so an insertion is cheap.
+        int[] best = new int[Math.min(limit, documents.size())];
+        int count = 0;
+        for (int id = 0; id < documents.size(); id++) {
+            if (totals[id] == 0) {
+                continue;
+            }
+            int position = count;
+            while (position > 0 && ranksBefore(id, best[position - 1], totals, documents)) {
+                position--;
+            }
+            if (position == best.length) {
+                continue;
+            }
+            int moved = Math.min(count, best.length - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            best[position] = id;
+            count = Math.min(count + 1, best.length);
+        }
+
+        List<News> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(documents.get(best[i]));
+        }
+        return results;
+    }
+
+    //Add the scores of the query words to the News and count the words each News matched.
+    //Called with the lock held.
+    private void score(List<String> queryWords, int[] scores, int[] matchedWords) {
+        for (int word = 0; word < queryWords.size(); word++) {
+            String queryWord = queryWords.get(word);
+            SortedMap<String, Postings> matches =
+                    mPostings.subMap(queryWord, queryWord + Character.MAX_VALUE);
+            for (Map.Entry<String, Postings> match : matches.entrySet()) {
+                int factor = match.getKey().length() == queryWord.length()
+                        ? EXACT_MATCH_FACTOR : 1;
+                Postings postings = match.getValue();
+                for (int i = 0; i < postings.mSize; i++) {
+                    int posting = postings.mEntries[i];
+                    int id = posting >>> WEIGHT_BITS;
+                    scores[id] += (posting & WEIGHT_MASK) * factor;
+                    // Several words of a News can start with the query word.
+                    if (matchedWords[id] == word) {
+                        matchedWords[id] = word + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    //Check if the News with the id ranks before the other one: a higher score or newer.
+    private static boolean ranksBefore(int id, int otherId, int[] scores, List<News> documents) {
+        if (scores[id] != scores[otherId]) {
+            return scores[id] > scores[otherId];
+        }
+        return documents.get(id).getTimeInMillis() > documents.get(otherId).getTimeInMillis();
+    }
+
+    //Called with the lock held.
+    private void index(News news) {
+        int id = mDocuments.size();
+        mDocuments.add(news);
+
+        // Sum the weights of the fields which contain a word, so every word has one posting.
+        Map<String, Integer> weights = new HashMap<>();
+        addWords(news.getTitle(), TITLE_WEIGHT, weights);
+        addWords(news.getSection(), SECTION_WEIGHT, weights);
+        addWords(news.getAuthor(), AUTHOR_WEIGHT, weights);
+        for (Map.Entry<String, Integer> word : weights.entrySet()) {
+            Postings postings = mPostings.get(word.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                mPostings.put(word.getKey(), postings);
+            }
+            postings.add((id << WEIGHT_BITS) | Math.min(WEIGHT_MASK, word.getValue()));
+        }
+    }
+
+    //Called with the lock held.
+    private void removeOlderHalf() {
+        List<News> newer = new ArrayList<>(
+                mDocuments.subList(mDocuments.size() / 2, mDocuments.size()));
+        mDocuments.clear();
+        mPostings.clear();
+        mUrls.clear();
+        for (News news : newer) {
+            mUrls.add(news.getUrl());
+            index(news);
+        }
+    }
+
+    private static void addWords(String text, int weight, Map<String, Integer> weights) {
+        List<String> words = new ArrayList<>();
+        tokenize(text, words);
+        // A word counts once per field.
+        for (String word : new HashSet<>(words)) {
+            Integer previous = weights.get(word);
+            weights.put(word, previous == null ? weight : previous + weight);
+        }
+    }
+
+    /**
+     * Split the text into lower case words of letters and digits.
+     */
+    static void tokenize(String text, List<String> words) {
+        if (text == null) {
+            return;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean wordCharacter = i < lowerCase.length()
+                    && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (wordCharacter && start < 0) {
+                start = i;
+            } else if (!wordCharacter && start >= 0) {
+                if (i - start >= MIN_WORD_LENGTH) {
+                    words.add(lowerCase.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * A growing array of postings.
+     */
+    private static final class Postings {
+        int[] mEntries = new int[INITIAL_POSTINGS];
+        int mSize;
+
+        void add(int posting) {
+            if (mSize == mEntries.length) {
+                mEntries = Arrays.copyOf(mEntries, mSize * 2);
+            }
+            mEntries[mSize++] = posting;
+        }
+    }
+}
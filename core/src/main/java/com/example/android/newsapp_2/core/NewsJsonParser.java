@@ -0,0 +1,316 @@
+package com.example.android.newsapp_2.core;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for the Guardian search response. The JSON is read token by token, so
+ * neither the whole response String nor a JSONObject tree is ever built. Every {@link News}
+ * is handed to the {@link Callback} as soon as its object in "results" has been read. The
+ * article body of the "fields" is only kept by {@link #parseArticles}, otherwise it is skipped.
+ */
+
+public final class NewsJsonParser {
+
+    //Strings to access the different JSON keys. These are functional Strings who should not be
+    //localized.
+    private static final String JSON_KEY_RESPONSE = "response";
+    private static final String JSON_KEY_RESULTS = "results";
+    private static final String JSON_KEY_WEBTITLE = "webTitle";
+    private static final String JSON_KEY_SECTIONNAME = "sectionName";
+    private static final String JSON_KEY_DATE = "webPublicationDate";
+    private static final String JSON_KEY_FIELDS = "fields";
+    private static final String JSON_KEY_AUTHOR = "byline";
+    private static final String JSON_KEY_THUMBNAIL = "thumbnail";
+    private static final String JSON_KEY_BODY = "body";
+    private static final String JSON_KEY_URL = "webUrl";
+
+    //String for Unknown author.
+    private static final String NO_INFORMATION_PROVIDED = News.NO_AUTHOR;
+
+    //org.json returns the String "null" for a JSON null, keep that behaviour.
+    private static final String JSON_NULL = "null";
+
+    //String for the charset for InputStreamReader.
+    private static final String CHARSET_INPUT_STREAM = "UTF-8";
+
+    //Turns an object or array value into its JSON text, like JSONObject.getString does.
+    private static final JsonParser JSON_TEXT_PARSER = new JsonParser();
+
+    /**
+     * Receives every {@link News} while the response is still being read.
+     */
+    public interface Callback {
+        void onNews(News news);
+    }
+
+    /**
+     * Receives every {@link News} together with the HTML of its article body, which is null if
+     * the response has no body for it.
+     */
+    public interface ArticleCallback {
+        void onArticle(News news, String body);
+    }
+
+    private NewsJsonParser() {
+    }
+
+    /**
+     * Parse the whole stream and return the {@link News} in the order of the response. The
+     * result is the same as the one of the former JSONObject based parser: if a result lacks a
+     * required key the {@link News} before it are returned, and if the JSON is malformed or
+     * ends too early the list is empty.
+     */
+    public static List<News> parse(InputStream inputStream) throws IOException {
+        final List<News> newsList = new ArrayList<>();
+        try {
+            parseJson(new InputStreamReader(inputStream, Charset.forName(CHARSET_INPUT_STREAM)),
+                    new Callback() {
+                        @Override
+                        public void onNews(News news) {
+                            newsList.add(news);
+                        }
+                    }, null);
+        } catch (MalformedJsonException | EOFException e) {
+            // The JSONObject based parser read the whole document before the first News.
+            newsList.clear();
+        }
+        return newsList;
+    }
+
+    /**
+     * Parse the stream and emit every {@link News} to the callback. Returns false if the
+     * response could not be parsed completely. Unlike {@link #parse(InputStream)} the
+     * {@link News} before a syntax error were emitted already.
+     */
+    public static boolean parse(InputStream inputStream, Callback callback) throws IOException {
+        Reader streamReader = new InputStreamReader(inputStream,
+                Charset.forName(CHARSET_INPUT_STREAM));
+        return parse(streamReader, callback);
+    }
+
+    /**
+     * Parse the reader and emit every {@link News} to the callback. Returns false if the
+     * response could not be parsed completely. Unlike {@link #parse(InputStream)} the
+     * {@link News} before a syntax error were emitted already.
+     */
+    public static boolean parse(Reader streamReader, Callback callback) throws IOException {
+        return parse(streamReader, callback, null);
+    }
+
+    /**
+     * Parse the stream of a response which was requested with the "body" field and emit every
+     * {@link News} with its body to the callback. Returns false if the response could not be
+     * parsed completely.
+     */
+    public static boolean parseArticles(InputStream inputStream, ArticleCallback callback)
+            throws IOException {
+        Reader streamReader = new InputStreamReader(inputStream,
+                Charset.forName(CHARSET_INPUT_STREAM));
+        return parse(streamReader, null, callback);
+    }
+
+    /**
+     * Parse the stream like {@link #parse(InputStream, Callback)} or {@link #parseArticles}
+     * with one of the callbacks, but throw a MalformedJsonException or EOFException if the
+     * JSON is broken or ends too early, e.g. because the connection broke. Returns false if a
+     * result lacks a required key.
+     */
+    static boolean parseStrict(InputStream inputStream, Callback callback,
+                               ArticleCallback articleCallback) throws IOException {
+        return parseJson(new InputStreamReader(inputStream,
+                Charset.forName(CHARSET_INPUT_STREAM)), callback, articleCallback);
+    }
+
+    //Exactly one of the callbacks is set, the body is only read for the articleCallback.
+    private static boolean parse(Reader streamReader, Callback callback,
+                                 ArticleCallback articleCallback) throws IOException {
+        try {
+            return parseJson(streamReader, callback, articleCallback);
+        } catch (MalformedJsonException | EOFException e) {
+            // The JSON is broken or ends too early, keep the News read so far.
+            return false;
+        }
+    }
+
+    /**
+     * Parse the reader and emit every {@link News} to one of the callbacks. Returns false if a
+     * result lacks a required key, a MalformedJsonException or EOFException is thrown if the
+     * JSON is broken or ends too early.
+     */
+    private static boolean parseJson(Reader streamReader, Callback callback,
+                                     ArticleCallback articleCallback) throws IOException {
+        JsonReader reader = new JsonReader(streamReader);
+        try {
+            if (!findResults(reader)) {
+                return false;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                readNews(reader, callback, articleCallback);
+            }
+            return true;
+        } catch (IllegalStateException | NumberFormatException e) {
+            // The JSON did not have the expected structure. This is the streaming equivalent
+            // of the JSONException thrown by the JSONObject based parser.
+            return false;
+        }
+    }
+
+    /**
+     * Move the reader to the value of "response.results". Returns false if there is no such key.
+     */
+    private static boolean findResults(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (JSON_KEY_RESPONSE.equals(reader.nextName())) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (JSON_KEY_RESULTS.equals(reader.nextName())) {
+                        return true;
+                    }
+                    reader.skipValue();
+                }
+                return false;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Read one object of the "results" array and emit it to the callback. The required keys
+     * are the same as in the former JSONObject based parser, the "fields" object with its
+     * "byline", "thumbnail" and "body" is optional.
+     */
+    private static void readNews(JsonReader reader, Callback callback,
+                                 ArticleCallback articleCallback) throws IOException {
+        String title = null;
+        String section = null;
+        String dateSource = null;
+        String url = null;
+        Fields fields = Fields.NONE;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (JSON_KEY_WEBTITLE.equals(name)) {
+                title = readString(reader);
+            } else if (JSON_KEY_SECTIONNAME.equals(name)) {
+                section = readString(reader);
+            } else if (JSON_KEY_DATE.equals(name)) {
+                dateSource = readString(reader);
+            } else if (JSON_KEY_URL.equals(name)) {
+                url = readString(reader);
+            } else if (JSON_KEY_FIELDS.equals(name)) {
+                fields = readFields(reader, articleCallback != null);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (title == null || section == null || dateSource == null || url == null) {
+            throw new MissingKeyException();
+        }
+
+        News news = new News(title, section, DateConverter.parseIso8601(dateSource),
+                fields.author, url, fields.thumbnail);
+        if (articleCallback != null) {
+            articleCallback.onArticle(news, fields.body);
+        } else {
+            callback.onNews(news);
+        }
+    }
+
+    /**
+     * Read the "fields" object with its "byline", "thumbnail" and, if readBody is true, "body".
+     * If there is no usable byline or thumbnail it stays unknown.
+     */
+    private static Fields readFields(JsonReader reader, boolean readBody) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return Fields.NONE;
+        }
+        String author = NO_INFORMATION_PROVIDED;
+        String thumbnail = NO_INFORMATION_PROVIDED;
+        String body = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (JSON_KEY_AUTHOR.equals(name)) {
+                author = readString(reader);
+            } else if (JSON_KEY_THUMBNAIL.equals(name) && reader.peek() == JsonToken.STRING) {
+                // Only a real url, a null thumbnail is no "null" url.
+                thumbnail = reader.nextString();
+            } else if (readBody && JSON_KEY_BODY.equals(name)
+                    && reader.peek() == JsonToken.STRING) {
+                body = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Fields(author, thumbnail, body);
+    }
+
+    /**
+     * Read a value the same way JSONObject.getString does: numbers and booleans are converted
+     * into Strings, null becomes "null" and objects or arrays become their JSON text.
+     */
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return JSON_NULL;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            try {
+                return JSON_TEXT_PARSER.parse(reader).toString();
+            } catch (JsonParseException e) {
+                throw new MalformedJsonException(e.getMessage());
+            }
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * Thrown when a required key of a result is missing or has the wrong type.
+     */
+    private static final class MissingKeyException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The optional values of the "fields" object.
+     */
+    private static final class Fields {
+        static final Fields NONE =
+                new Fields(NO_INFORMATION_PROVIDED, NO_INFORMATION_PROVIDED, null);
+
+        final String author;
+        final String thumbnail;
+        final String body;
+
+        Fields(String author, String thumbnail, String body) {
+            this.author = author;
+            this.thumbnail = thumbnail;
+            this.body = body;
+        }
+    }
+}
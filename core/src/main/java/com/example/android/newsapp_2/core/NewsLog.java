@@ -0,0 +1,30 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Static logging methods of the core module, shaped like android.util.Log. The messages go to
+ * the {@link Logger} set with {@link #setLogger(Logger)}, without one they are dropped.
+ */
+
+public final class NewsLog {
+
+    private static volatile Logger sLogger = Logger.NONE;
+
+    private NewsLog() {
+    }
+
+    public static void setLogger(Logger logger) {
+        sLogger = logger != null ? logger : Logger.NONE;
+    }
+
+    public static void i(String tag, String message) {
+        sLogger.info(tag, message);
+    }
+
+    public static void e(String tag, String message) {
+        sLogger.error(tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable throwable) {
+        sLogger.error(tag, message, throwable);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Merges lists of {@link News} which are each sorted by time into one sorted list. Every list
+ * is only read once from the front, so merging k lists of n News in total takes O(n log k)
+ * instead of sorting the concatenated lists. A News whose URL was merged already is skipped,
+ * the same article is often found by several queries.
+ */
+
+public final class NewsMerger {
+
+    private NewsMerger() {
+    }
+
+    /**
+     * Merge the lists, which are sorted newest first if newestFirst is true and oldest first
+     * otherwise. News without a date are put at the end. Null lists are skipped.
+     */
+    public static List<News> merge(List<List<News>> lists, final boolean newestFirst) {
+        int total = 0;
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, lists.size()));
+        for (List<News> list : lists) {
+            if (list != null && !list.isEmpty()) {
+                total += list.size();
+                heads.add(new Cursor(list, newestFirst));
+            }
+        }
+
+        List<News> merged = new ArrayList<>(total);
+        Set<String> mergedUrls = new HashSet<>(total * 2);
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            News news = cursor.head();
+            if (mergedUrls.add(news.getUrl())) {
+                merged.add(news);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * The position in one of the merged lists. Cursors are ordered by the News at their
+     * position.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final List<News> mList;
+        private final boolean mNewestFirst;
+        private int mPosition;
+
+        Cursor(List<News> list, boolean newestFirst) {
+            mList = list;
+            mNewestFirst = newestFirst;
+        }
+
+        News head() {
+            return mList.get(mPosition);
+        }
+
+        boolean advance() {
+            return ++mPosition < mList.size();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            long time = head().getTimeInMillis();
+            long otherTime = other.head().getTimeInMillis();
+            if (time == otherTime) {
+                return 0;
+            }
+            // News without a date come last in both directions.
+            if (time == News.NO_DATE) {
+                return 1;
+            }
+            if (otherTime == News.NO_DATE) {
+                return -1;
+            }
+            boolean before = mNewestFirst ? time > otherTime : time < otherTime;
+            return before ? -1 : 1;
+        }
+    }
+}
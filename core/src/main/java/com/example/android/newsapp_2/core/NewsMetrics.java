@@ -0,0 +1,134 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Static timings and counts of the hot paths: the HTTP request, the parser, the end-to-end
+ * latency of the {@link FetchEngine} and the binding of the list rows. Every {@link Metric} has
+ * a lock-free {@link Histogram}, {@link #toJson()} exports all of them, e.g. for a debug screen.
+ * <p>
+ * Metrics are off until {@link #setEnabled(boolean)} switches them on at the start of the
+ * app. While they are off {@link #start()} doesn't read the clock and
+ * {@link #recordSince(Metric, long)} returns at once.
+ */
+
+public final class NewsMetrics {
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    //Value of start() while metrics are off.
+    private static final long NOT_STARTED = 0;
+
+    public enum Metric {
+        //Time to resolve the host of a request, see UrlConnectionTransport.
+        FETCH_DNS("fetch_dns_us"),
+        //Time to open the connection, including the FETCH_DNS time, the TCP and the TLS
+        //handshake. A connection from the pool skips the handshakes.
+        FETCH_CONNECT("fetch_connect_us"),
+        //Time from the sent request to the response code.
+        FETCH_FIRST_BYTE("fetch_first_byte_us"),
+        //Time spent waiting for the body, it is read while it is parsed.
+        FETCH_DOWNLOAD("fetch_download_us"),
+        //Bytes of the body as they were received, compressed if the server compressed them.
+        FETCH_BYTES("fetch_bytes"),
+        //Time spent decompressing and parsing the body, without the time waiting for it.
+        PARSE("parse_us"),
+        //Number of News of a parsed response.
+        PARSE_ITEMS("parse_items"),
+        //Time from the start of a request of the FetchEngine to its fresh result.
+        LOAD_LATENCY("load_latency_us"),
+        //Time to bind a row of the list.
+        BIND("bind_us");
+
+        private final String mKey;
+        private final Histogram mHistogram = new Histogram();
+
+        Metric(String key) {
+            mKey = key;
+        }
+
+        public String getKey() {
+            return mKey;
+        }
+
+        public Histogram getHistogram() {
+            return mHistogram;
+        }
+    }
+
+    //Only set at the start of the app, so reading it needs no synchronization.
+    private static boolean sEnabled;
+
+    private NewsMetrics() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Return the start time of a measurement for {@link #recordSince(Metric, long)}.
+     */
+    public static long start() {
+        return sEnabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Record the microseconds since the start time.
+     */
+    public static void recordSince(Metric metric, long startNanos) {
+        if (sEnabled && startNanos != NOT_STARTED) {
+            recordNanos(metric, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Record a duration which was measured in nanoseconds, in microseconds.
+     */
+    public static void recordNanos(Metric metric, long nanos) {
+        if (sEnabled) {
+            metric.mHistogram.record(nanos / NANOS_PER_MICRO);
+        }
+    }
+
+    /**
+     * Record a count or a size.
+     */
+    public static void record(Metric metric, long value) {
+        if (sEnabled) {
+            metric.mHistogram.record(value);
+        }
+    }
+
+    public static void reset() {
+        for (Metric metric : Metric.values()) {
+            metric.mHistogram.reset();
+        }
+    }
+
+    /**
+     * Return all metrics as a JSON object: for every metric its count, mean, median, 90th and
+     * 99th percentile and maximum.
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        Metric[] metrics = Metric.values();
+        for (int i = 0; i < metrics.length; i++) {
+            Histogram.Snapshot snapshot = metrics[i].mHistogram.snapshot();
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\n  \"").append(metrics[i].mKey).append("\": {")
+                    .append("\"count\": ").append(snapshot.getCount())
+                    .append(", \"mean\": ").append(snapshot.getMean())
+                    .append(", \"p50\": ").append(snapshot.getPercentile(0.5))
+                    .append(", \"p90\": ").append(snapshot.getPercentile(0.9))
+                    .append(", \"p99\": ").append(snapshot.getPercentile(0.99))
+                    .append(", \"max\": ").append(snapshot.getMax())
+                    .append('}');
+        }
+        return json.append("\n}").toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+
+/**
+ * Fetches the list of {@link News} of a query URL, e.g. from the Guardian API.
+ */
+
+public interface NewsSource {
+
+    /**
+     * Return the fetched list of {@link News} or null if the request was canceled.
+     *
+     * @throws FetchException if the request failed
+     */
+    List<News> fetch(String url, FetchCancellation cancellation) throws FetchException;
+
+    /**
+     * Source which fetches the News from the Guardian API with {@link QueryUtils}.
+     */
+    NewsSource GUARDIAN = new NewsSource() {
+        @Override
+        public List<News> fetch(String url, FetchCancellation cancellation)
+                throws FetchException {
+            return QueryUtils.fetchNews(url, cancellation);
+        }
+    };
+}
@@ -0,0 +1,20 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+
+/**
+ * Local store of the list of {@link News} of every query, keyed by the complete query URL.
+ */
+
+public interface NewsStore {
+
+    /**
+     * Return the stored list of {@link News} for the URL or null if there is no valid entry.
+     */
+    List<News> get(String url);
+
+    /**
+     * Store the list of {@link News} for the URL.
+     */
+    void put(String url, List<News> newsList);
+}
@@ -0,0 +1,421 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Helper methods related to requesting and receiving news data from the Guardian API.
+ */
+
+public class QueryUtils {
+
+    public static final String LOG_TAG = QueryUtils.class.getSimpleName();
+
+    //Integer for the correct response code in makeHttpRequest.
+    private static final int HTTP_CORRECT_RESPONSE_CODE = 200;
+
+    //Integer for the response code of an unchanged response in makeHttpRequest.
+    private static final int HTTP_NOT_MODIFIED_RESPONSE_CODE = 304;
+
+    //Strings for the headers of conditional and compressed requests.
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String ENCODING_GZIP = "gzip";
+
+    //Maximum number of responses whose validators and News are kept for conditional requests.
+    private static final int MAX_VALIDATED_RESPONSES = 20;
+
+    //Sends the requests of makeHttpRequest, tests can replace it with a fake transport.
+    private static HttpTransport sTransport = new UrlConnectionTransport();
+
+    //The validators and the parsed News of the last responses, the least recently used
+    //response is removed first.
+    private static final Map<String, ValidatedResponse> sValidatedResponses =
+            new LinkedHashMap<String, ValidatedResponse>(MAX_VALIDATED_RESPONSES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, ValidatedResponse> eldest) {
+                    return size() > MAX_VALIDATED_RESPONSES;
+                }
+            };
+
+    //Format of a Retry-After header which is a date instead of seconds.
+    private static final String HTTP_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    //A longer Retry-After is cut to a day, so a wrong header can't pause the requests forever.
+    private static final long MAX_RETRY_AFTER_MILLIS = 24 * 60 * 60 * MILLIS_PER_SECOND;
+    private static final String DIGITS_PATTERN = "\\d+";
+
+    //Integer returned by InputStream.read() at the end of the stream.
+    private static final int END_OF_STREAM = -1;
+
+
+    private QueryUtils() {
+    }
+
+    /**
+     * Replace the {@link HttpTransport} which sends the requests, e.g. by a fake one in tests.
+     */
+    static void setTransport(HttpTransport transport) {
+        sTransport = transport;
+    }
+
+    /**
+     * Query the Guardian API to return a list of {@link News} via JSON parsing.
+     */
+
+    public static List<News> fetchNewsData(String requestUrl) {
+        return fetchNewsData(requestUrl, new FetchCancellation());
+    }
+
+    /**
+     * Query the Guardian API to return a list of {@link News} via JSON parsing. The request can
+     * be canceled with the {@link FetchCancellation}, then null is returned. A failed request
+     * is logged and returns null as well, see {@link #fetchNews} for the reason of the failure.
+     */
+
+    public static List<News> fetchNewsData(String requestUrl, FetchCancellation cancellation) {
+        try {
+            return fetchNews(requestUrl, cancellation);
+        } catch (FetchException e) {
+            NewsLog.e(LOG_TAG, "Problem making the HTTP request.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Query the Guardian API to return a list of {@link News} via JSON parsing. Returns null if
+     * the request was canceled with the {@link FetchCancellation}.
+     *
+     * @throws FetchException if the request failed, its kind tells whether it can be retried
+     */
+    public static List<News> fetchNews(String requestUrl, FetchCancellation cancellation)
+            throws FetchException {
+        NewsLog.i(LOG_TAG, "fetchNewsData started");
+
+        // Create an URL object
+        URL url = createUrl(requestUrl);
+
+        // Perform HTTP request to the URL and parse the JSON response while it is received.
+        return makeHttpRequest(url, cancellation, null);
+    }
+
+    /**
+     * Query a URL which asks for the "body" field and hand every {@link News} with its article
+     * body to the callback while the response is read. Returns the {@link News} or null if the
+     * request was canceled. The bodies are not kept, so no conditional request is sent.
+     *
+     * @throws FetchException if the request failed, its kind tells whether it can be retried
+     */
+    public static List<News> fetchArticles(String requestUrl, FetchCancellation cancellation,
+                                           NewsJsonParser.ArticleCallback callback)
+            throws FetchException {
+        return makeHttpRequest(createUrl(requestUrl), cancellation, callback);
+    }
+
+    /**
+     * Extract the list of {@link News} from the JSON response while it is read from the stream.
+     * The articles are handed to the articleCallback if it is not null. Returns null if the
+     * response is empty. If a result lacks a required key, the {@link News} before it are
+     * returned like by the former parser, but the response is not complete.
+     *
+     * @throws IOException if the JSON is broken or ends too early, e.g. the connection broke
+     */
+    private static ParsedResponse extractFeatureFromJson(
+            InputStream inputStream, final NewsJsonParser.ArticleCallback articleCallback)
+            throws IOException {
+        // If the JSON response is empty, then return early.
+        BufferedInputStream bufferedStream = new BufferedInputStream(inputStream);
+        bufferedStream.mark(1);
+        if (bufferedStream.read() == END_OF_STREAM) {
+            return null;
+        }
+        bufferedStream.reset();
+
+        // Create an empty ArrayList that we can start adding News to
+        final List<News> newsList = new ArrayList<>();
+
+        // Parse the response token by token. A broken JSON throws, so it fails the request.
+        boolean complete;
+        if (articleCallback != null) {
+            complete = NewsJsonParser.parseStrict(bufferedStream, null,
+                    new NewsJsonParser.ArticleCallback() {
+                        @Override
+                        public void onArticle(News news, String body) {
+                            newsList.add(news);
+                            articleCallback.onArticle(news, body);
+                        }
+                    });
+        } else {
+            complete = NewsJsonParser.parseStrict(bufferedStream, new NewsJsonParser.Callback() {
+                @Override
+                public void onNews(News news) {
+                    // Add the new {@link News} to the list of.
+                    newsList.add(news);
+                }
+            }, null);
+        }
+        if (!complete) {
+            NewsLog.e(LOG_TAG, "Problem parsing the news JSON results");
+        }
+        NewsMetrics.record(NewsMetrics.Metric.PARSE_ITEMS, newsList.size());
+
+        // Return the list of newsArticles.
+        return new ParsedResponse(newsList, complete);
+    }
+
+    /**
+     * Returns new URL object from the given string URL.
+     */
+    private static URL createUrl(String stringUrl) throws FetchException {
+        try {
+            return new URL(stringUrl);
+        } catch (MalformedURLException e) {
+            throw new FetchException(FetchException.Kind.INVALID_URL,
+                    "Problem building the URL " + stringUrl, e);
+        }
+    }
+
+    /**
+     * Make an http-request to the given URL and return the parsed list of {@link News}. With an
+     * articleCallback the article bodies are parsed as well.
+     */
+
+    private static List<News> makeHttpRequest(URL url, FetchCancellation cancellation,
+                                              NewsJsonParser.ArticleCallback articleCallback)
+            throws FetchException {
+
+        List<News> newsList = null;
+
+        // Initiate the HTTP connection.
+
+        HttpTransport.Response response = null;
+        String key = url.toString();
+        ValidatedResponse validatedResponse = null;
+        if (articleCallback == null) {
+            synchronized (sValidatedResponses) {
+                validatedResponse = sValidatedResponses.get(key);
+            }
+        }
+
+        // Setting Accept-Encoding ourselves means we also have to decompress the response.
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HEADER_ACCEPT_ENCODING, ENCODING_GZIP);
+        // Send the validators of the last response, so the server can answer with
+        // 304 Not Modified instead of sending the same results again.
+        if (validatedResponse != null) {
+            if (validatedResponse.eTag != null) {
+                headers.put(HEADER_IF_NONE_MATCH, validatedResponse.eTag);
+            }
+            if (validatedResponse.lastModified != null) {
+                headers.put(HEADER_IF_MODIFIED_SINCE, validatedResponse.lastModified);
+            }
+        }
+
+        try {
+            long connectStart = NewsMetrics.start();
+            response = sTransport.get(url, headers);
+            NewsMetrics.recordSince(NewsMetrics.Metric.FETCH_CONNECT, connectStart);
+            // Let the cancellation abort the connection while the response is read.
+            cancellation.setResponse(response);
+
+            // If the request was successful (response code 200),
+            // then read the input stream and parse the response.
+            long firstByteStart = NewsMetrics.start();
+            int responseCode = response.getResponseCode();
+            NewsMetrics.recordSince(NewsMetrics.Metric.FETCH_FIRST_BYTE, firstByteStart);
+            if (responseCode == HTTP_CORRECT_RESPONSE_CODE) {
+                InputStream inputStream = response.getBody();
+                // The body is parsed while it is received, the stream measures the time spent
+                // waiting for it.
+                MeteredInputStream meteredStream = null;
+                if (NewsMetrics.isEnabled()) {
+                    meteredStream = new MeteredInputStream(inputStream);
+                    inputStream = meteredStream;
+                }
+                if (ENCODING_GZIP.equalsIgnoreCase(response.getHeader(HEADER_CONTENT_ENCODING))) {
+                    inputStream = new GZIPInputStream(inputStream);
+                }
+                long bodyStart = NewsMetrics.start();
+                ParsedResponse parsed = extractFeatureFromJson(inputStream, articleCallback);
+                if (meteredStream != null) {
+                    long readNanos = meteredStream.getReadNanos();
+                    NewsMetrics.recordNanos(NewsMetrics.Metric.FETCH_DOWNLOAD, readNanos);
+                    NewsMetrics.recordNanos(NewsMetrics.Metric.PARSE,
+                            System.nanoTime() - bodyStart - readNanos);
+                    NewsMetrics.record(NewsMetrics.Metric.FETCH_BYTES, meteredStream.getBytes());
+                }
+                if (parsed == null) {
+                    throw new FetchException(FetchException.Kind.INVALID_RESPONSE,
+                            "Empty response", responseCode, FetchException.NO_RETRY_AFTER, null);
+                }
+                newsList = Collections.unmodifiableList(parsed.newsList);
+                // The validators of an incomplete response must not turn it into the answer
+                // of the next conditional request.
+                if (articleCallback == null) {
+                    if (parsed.complete) {
+                        rememberResponse(key, response, newsList);
+                    } else {
+                        forgetResponse(key);
+                    }
+                }
+            } else if (responseCode == HTTP_NOT_MODIFIED_RESPONSE_CODE
+                    && validatedResponse != null) {
+                // Nothing changed, reuse the News parsed from the last response.
+                NewsLog.i(LOG_TAG, "News not modified");
+                newsList = validatedResponse.newsList;
+            } else {
+                throw FetchException.forResponseCode(responseCode,
+                        parseRetryAfter(response.getHeader(HEADER_RETRY_AFTER)));
+            }
+        } catch (FetchException e) {
+            throw e;
+        } catch (IOException e) {
+            // An aborted connection fails the read, that is no failure of the request.
+            if (!cancellation.isCanceled()) {
+                throw new FetchException(FetchException.Kind.NETWORK,
+                        "Problem retrieving the news JSON results.", e);
+            }
+        } finally {
+            cancellation.setResponse(null);
+            // The connection is not disconnected, closing the response gives it back to the
+            // connection pool. A canceled connection is not reused.
+            if (response != null) {
+                if (cancellation.isCanceled()) {
+                    response.abort();
+                } else {
+                    closeResponse(response);
+                }
+            }
+        }
+        NewsLog.i(LOG_TAG, "makeHttprequest completed");
+        // A canceled request may have been parsed partially, drop it.
+        if (cancellation.isCanceled()) {
+            return null;
+        }
+        return newsList;
+
+    }
+
+    /**
+     * Close the response. The News are read already, so a failure only means the connection
+     * can't be reused.
+     */
+    private static void closeResponse(HttpTransport.Response response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem closing the response.", e);
+        }
+    }
+
+    /**
+     * Return the milliseconds of a Retry-After header, which are either given in seconds or as
+     * an HTTP date, or {@link FetchException#NO_RETRY_AFTER} if there is no valid header. The
+     * delay is at most a day.
+     */
+    static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return FetchException.NO_RETRY_AFTER;
+        }
+        retryAfter = retryAfter.trim();
+        try {
+            long seconds = Long.parseLong(retryAfter);
+            // Compared in seconds, so the multiplication can't overflow.
+            if (seconds > MAX_RETRY_AFTER_MILLIS / MILLIS_PER_SECOND) {
+                return MAX_RETRY_AFTER_MILLIS;
+            }
+            return Math.max(0, seconds * MILLIS_PER_SECOND);
+        } catch (NumberFormatException e) {
+            if (retryAfter.matches(DIGITS_PATTERN)) {
+                // Too many seconds for a long.
+                return MAX_RETRY_AFTER_MILLIS;
+            }
+            // Not in seconds, try an HTTP date.
+        }
+        SimpleDateFormat httpDate = new SimpleDateFormat(HTTP_DATE_PATTERN, Locale.US);
+        httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            long delay = httpDate.parse(retryAfter).getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(delay, MAX_RETRY_AFTER_MILLIS));
+        } catch (ParseException e) {
+            NewsLog.e(LOG_TAG, "Invalid Retry-After header " + retryAfter, e);
+            return FetchException.NO_RETRY_AFTER;
+        }
+    }
+
+    /**
+     * Keep the validators of the response together with its parsed News, if the server sent
+     * any validators.
+     */
+    private static void rememberResponse(String key, HttpTransport.Response response,
+                                         List<News> newsList) {
+        String eTag = response.getHeader(HEADER_ETAG);
+        String lastModified = response.getHeader(HEADER_LAST_MODIFIED);
+        synchronized (sValidatedResponses) {
+            if (eTag == null && lastModified == null) {
+                sValidatedResponses.remove(key);
+            } else {
+                sValidatedResponses.put(key,
+                        new ValidatedResponse(eTag, lastModified, newsList));
+            }
+        }
+    }
+
+    /**
+     * Forget the validators of the last response of the URL.
+     */
+    private static void forgetResponse(String key) {
+        synchronized (sValidatedResponses) {
+            sValidatedResponses.remove(key);
+        }
+    }
+
+    /**
+     * The News of a response and whether all of its results could be parsed.
+     */
+    private static final class ParsedResponse {
+        final List<News> newsList;
+        final boolean complete;
+
+        ParsedResponse(List<News> newsList, boolean complete) {
+            this.newsList = newsList;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * The validators of a response and the News parsed from it.
+     */
+    private static final class ValidatedResponse {
+        final String eTag;
+        final String lastModified;
+        final List<News> newsList;
+
+        ValidatedResponse(String eTag, String lastModified, List<News> newsList) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.newsList = newsList;
+        }
+    }
+
+}
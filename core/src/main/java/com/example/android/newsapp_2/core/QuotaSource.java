@@ -0,0 +1,69 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+
+/**
+ * Keeps the requests of the wrapped {@link NewsSource} within the limits of the API key: a
+ * {@link RateLimiter} for the requests per second and a {@link DailyBudget} for the requests
+ * per day. A request waits up to maxWaitMillis for the rate limiter. If it would have to wait
+ * longer or the budget of today is used up it fails with
+ * {@link FetchException.Kind#QUOTA_EXCEEDED}, so the {@link FetchEngine} shows the cached News.
+ */
+
+public final class QuotaSource implements NewsSource {
+
+    public static final String LOG_TAG = QuotaSource.class.getSimpleName();
+
+    private final NewsSource mSource;
+    private final RateLimiter mRateLimiter;
+    private final DailyBudget mBudget;
+    private final long mMaxWaitMillis;
+
+    public QuotaSource(NewsSource source, RateLimiter rateLimiter, DailyBudget budget,
+                       long maxWaitMillis) {
+        mSource = source;
+        mRateLimiter = rateLimiter;
+        mBudget = budget;
+        mMaxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public List<News> fetch(String url, FetchCancellation cancellation)
+            throws FetchException {
+        if (mBudget.getRemaining() == 0) {
+            throw new FetchException(FetchException.Kind.QUOTA_EXCEEDED,
+                    "Daily budget of " + mBudget.getDailyLimit() + " requests used up",
+                    FetchException.NO_RESPONSE_CODE, mBudget.getMillisUntilReset(), null);
+        }
+
+        // Defer the request until the rate limiter has a token, but not for too long.
+        long waited = 0;
+        long wait;
+        while ((wait = mRateLimiter.tryAcquire()) > 0) {
+            if (waited + wait > mMaxWaitMillis) {
+                throw new FetchException(FetchException.Kind.QUOTA_EXCEEDED,
+                        "Too many requests per second", FetchException.NO_RESPONSE_CODE, wait,
+                        null);
+            }
+            NewsLog.i(LOG_TAG, "Deferring request by " + wait + " ms");
+            if (!cancellation.sleep(wait)) {
+                return null;
+            }
+            waited += wait;
+        }
+
+        if (!mBudget.tryConsume()) {
+            throw new FetchException(FetchException.Kind.QUOTA_EXCEEDED,
+                    "Daily budget of " + mBudget.getDailyLimit() + " requests used up",
+                    FetchException.NO_RESPONSE_CODE, mBudget.getMillisUntilReset(), null);
+        }
+        return mSource.fetch(url, cancellation);
+    }
+
+    /**
+     * Return the number of requests which are left today.
+     */
+    public int getRemainingToday() {
+        return mBudget.getRemaining();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * Token bucket which limits the number of requests per second. The bucket holds up to
+ * burst tokens and is refilled with permitsPerSecond tokens every second, every request takes
+ * one token.
+ */
+
+public final class RateLimiter {
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private final double mPermitsPerMilli;
+    private final double mCapacity;
+    private double mTokens;
+    private long mLastRefill;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        mPermitsPerMilli = permitsPerSecond / MILLIS_PER_SECOND;
+        mCapacity = Math.max(1, burst);
+        mTokens = mCapacity;
+        mLastRefill = System.currentTimeMillis();
+    }
+
+    /**
+     * Take a token if there is one. Returns 0 if a token was taken and otherwise the
+     * milliseconds until the next token is available.
+     */
+    public synchronized long tryAcquire() {
+        refill();
+        if (mTokens >= 1) {
+            mTokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - mTokens) / mPermitsPerMilli));
+    }
+
+    private void refill() {
+        long now = System.currentTimeMillis();
+        if (now > mLastRefill) {
+            mTokens = Math.min(mCapacity, mTokens + (now - mLastRefill) * mPermitsPerMilli);
+            mLastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Remembers which News were read and which were seen in the feed, by the 64-bit hash of their
+ * url (see {@link News#getUrlHash()}). The hashes are kept in {@link LongHashSet}s, so a lookup
+ * while a row is bound doesn't allocate, and the file stores eight bytes per News.
+ * <p>
+ * The hashes age out: they are collected in generations which each span a part of the
+ * retention time. When the newest generation is full of time a new one is started, and a
+ * generation which started longer than the retention time ago is dropped. So a News is
+ * forgotten between the retention time minus one generation and the retention time after it
+ * was marked. A read News counts as seen.
+ * <p>
+ * The methods may be called from any thread. {@link #save()} writes to the disk, so it
+ * shouldn't be called on the main thread.
+ */
+
+public final class ReadState {
+
+    public static final String LOG_TAG = ReadState.class.getSimpleName();
+
+    //Ending of the temporary file which is written before it replaces the saved state.
+    private static final String TEMP_FILE_ENDING = ".tmp";
+
+    //Version of the file format, a file with another version is ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    //A file with more generations is corrupt, also if the number of generations was lowered.
+    private static final int MAX_SAVED_GENERATIONS = 64;
+
+    //Bytes of a saved hash.
+    private static final int HASH_BYTES = 8;
+
+    private final File mFile;
+    private final long mGenerationMillis;
+    private final int mMaxGenerations;
+
+    //The generations, newest first. There is always at least one.
+    private Generation[] mGenerations;
+    private int mGenerationCount;
+    //True if something was marked after the last save.
+    private boolean mChanged;
+
+    /**
+     * Create an empty state which keeps the hashes for the retention time in the given number
+     * of generations. Call {@link #load()} to read the saved state.
+     */
+    public ReadState(File file, long retentionMillis, int generations) {
+        this(file, retentionMillis, generations, System.currentTimeMillis());
+    }
+
+    ReadState(File file, long retentionMillis, int generations, long now) {
+        mFile = file;
+        mMaxGenerations = Math.max(1, generations);
+        mGenerationMillis = Math.max(1, retentionMillis / mMaxGenerations);
+        mGenerations = new Generation[mMaxGenerations + 1];
+        mGenerations[0] = new Generation(now);
+        mGenerationCount = 1;
+    }
+
+    public boolean isRead(long urlHash) {
+        return isRead(urlHash, System.currentTimeMillis());
+    }
+
+    public boolean isSeen(long urlHash) {
+        return isSeen(urlHash, System.currentTimeMillis());
+    }
+
+    public void markRead(long urlHash) {
+        markRead(urlHash, System.currentTimeMillis());
+    }
+
+    /**
+     * Mark the News as seen. Returns false if it was seen before, e.g. so it is not announced
+     * again.
+     */
+    public boolean markSeen(long urlHash) {
+        return markSeen(urlHash, System.currentTimeMillis());
+    }
+
+    synchronized boolean isRead(long urlHash, long now) {
+        long oldestStart = oldestValidStart(now);
+        for (int i = 0; i < mGenerationCount; i++) {
+            Generation generation = mGenerations[i];
+            if (generation.startMillis < oldestStart) {
+                break;
+            }
+            if (generation.read.contains(urlHash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized boolean isSeen(long urlHash, long now) {
+        long oldestStart = oldestValidStart(now);
+        for (int i = 0; i < mGenerationCount; i++) {
+            Generation generation = mGenerations[i];
+            if (generation.startMillis < oldestStart) {
+                break;
+            }
+            if (generation.seen.contains(urlHash) || generation.read.contains(urlHash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void markRead(long urlHash, long now) {
+        if (!isRead(urlHash, now)) {
+            rotate(now);
+            mGenerations[0].read.add(urlHash);
+            mChanged = true;
+        }
+    }
+
+    synchronized boolean markSeen(long urlHash, long now) {
+        if (isSeen(urlHash, now)) {
+            return false;
+        }
+        rotate(now);
+        mGenerations[0].seen.add(urlHash);
+        mChanged = true;
+        return true;
+    }
+
+    /**
+     * Read the saved state and add it to the News which were marked since the start. A corrupt
+     * file is ignored, as if nothing was saved.
+     */
+    public void load() {
+        if (!mFile.exists()) {
+            return;
+        }
+        //No set of a valid file holds more hashes than the file has room for.
+        long maxHashes = mFile.length() / HASH_BYTES;
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+            if (input.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = input.readInt();
+            if (count < 0 || count > MAX_SAVED_GENERATIONS) {
+                NewsLog.e(LOG_TAG, "Ignoring the read state with " + count + " generations.");
+                return;
+            }
+            Generation[] saved = new Generation[count];
+            for (int i = 0; i < count; i++) {
+                saved[i] = new Generation(input.readLong());
+                if (!readHashes(input, saved[i].read, maxHashes)
+                        || !readHashes(input, saved[i].seen, maxHashes)) {
+                    NewsLog.e(LOG_TAG, "Ignoring the corrupt read state.");
+                    return;
+                }
+            }
+            merge(saved, System.currentTimeMillis());
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem reading the read state.", e);
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Write the state to the file if something was marked since the last save.
+     */
+    public void save() {
+        long[] starts;
+        long[][] read;
+        long[][] seen;
+        // Copy the hashes, so the lookups don't wait for the disk.
+        synchronized (this) {
+            if (!mChanged) {
+                return;
+            }
+            rotate(System.currentTimeMillis());
+            starts = new long[mGenerationCount];
+            read = new long[mGenerationCount][];
+            seen = new long[mGenerationCount][];
+            for (int i = 0; i < mGenerationCount; i++) {
+                starts[i] = mGenerations[i].startMillis;
+                read[i] = mGenerations[i].read.toArray();
+                seen[i] = mGenerations[i].seen.toArray();
+            }
+            mChanged = false;
+        }
+
+        File directory = mFile.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            NewsLog.e(LOG_TAG, "Problem creating the directory of the read state.");
+            return;
+        }
+
+        // Write into a temporary file first, so a half written state is never read.
+        File tempFile = new File(mFile.getPath() + TEMP_FILE_ENDING);
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)));
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(starts.length);
+            for (int i = 0; i < starts.length; i++) {
+                output.writeLong(starts[i]);
+                writeHashes(output, read[i]);
+                writeHashes(output, seen[i]);
+            }
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(mFile)) {
+                NewsLog.e(LOG_TAG, "Problem storing the read state.");
+            }
+        } catch (IOException e) {
+            NewsLog.e(LOG_TAG, "Problem writing the read state.", e);
+        } finally {
+            closeQuietly(output);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Add the saved generations, newest first, to the current ones. A saved generation which
+     * overlaps the current newest one is merged into it. Generations beyond the maximum number
+     * are dropped, the oldest first.
+     */
+    synchronized void merge(Generation[] saved, long now) {
+        Generation newest = mGenerations[0];
+        //One more than the maximum, so rotate has room for a new generation.
+        Generation[] merged = new Generation[mMaxGenerations + 1];
+        int count = 0;
+        boolean newestAdded = false;
+        for (int i = 0; i < saved.length && count < mMaxGenerations; i++) {
+            Generation generation = saved[i];
+            if (!newestAdded && generation.startMillis <= newest.startMillis) {
+                newestAdded = true;
+                if (newest.startMillis - generation.startMillis < mGenerationMillis) {
+                    // The saved generation is still running, keep its start.
+                    newest.startMillis = generation.startMillis;
+                    newest.addAll(generation);
+                    merged[count++] = newest;
+                    continue;
+                }
+                merged[count++] = newest;
+                if (count == mMaxGenerations) {
+                    break;
+                }
+            }
+            merged[count++] = generation;
+        }
+        if (!newestAdded) {
+            // All kept saved generations are newer, e.g. the clock was turned back. The News
+            // which were marked since the start replace the oldest of them.
+            if (count == mMaxGenerations) {
+                count--;
+            }
+            merged[count++] = newest;
+        }
+        mGenerations = merged;
+        mGenerationCount = count;
+        rotate(now);
+    }
+
+    //Start a new generation when the newest one is full of time and drop the expired ones.
+    private void rotate(long now) {
+        if (now - mGenerations[0].startMillis >= mGenerationMillis) {
+            System.arraycopy(mGenerations, 0, mGenerations, 1, mGenerationCount);
+            mGenerations[0] = new Generation(now);
+            mGenerationCount++;
+            mChanged = true;
+        }
+        long oldestStart = oldestValidStart(now);
+        while (mGenerationCount > 1
+                && (mGenerationCount > mMaxGenerations
+                || mGenerations[mGenerationCount - 1].startMillis < oldestStart)) {
+            mGenerationCount--;
+            mGenerations[mGenerationCount] = null;
+            mChanged = true;
+        }
+    }
+
+    //Generations which started before this time only hold expired hashes.
+    private long oldestValidStart(long now) {
+        return now - mGenerationMillis * mMaxGenerations;
+    }
+
+    //Return false if the number of hashes is impossible.
+    private static boolean readHashes(DataInputStream input, LongHashSet hashes, long maxHashes)
+            throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > maxHashes) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            hashes.add(input.readLong());
+        }
+        return true;
+    }
+
+    private static void writeHashes(DataOutputStream output, long[] hashes) throws IOException {
+        output.writeInt(hashes.length);
+        for (long hash : hashes) {
+            output.writeLong(hash);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                NewsLog.e(LOG_TAG, "Problem closing the read state file.", e);
+            }
+        }
+    }
+
+    /**
+     * The hashes which were marked in one span of time.
+     */
+    static final class Generation {
+        long startMillis;
+        final LongHashSet read = new LongHashSet();
+        final LongHashSet seen = new LongHashSet();
+
+        Generation(long startMillis) {
+            this.startMillis = startMillis;
+        }
+
+        void addAll(Generation other) {
+            for (long hash : other.read.toArray()) {
+                read.add(hash);
+            }
+            for (long hash : other.seen.toArray()) {
+                seen.add(hash);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Retries the temporary failures of the wrapped {@link NewsSource}, see
+ * {@link FetchException.Kind#isRetryable()}. The delay before a retry grows exponentially from
+ * baseDelayMillis up to maxDelayMillis, and a random half of it is jittered so clients which
+ * failed together don't retry together. A longer Retry-After of the server is respected, if
+ * it is longer than maxDelayMillis the request fails without a retry.
+ * <p>
+ * All requests go through a {@link CircuitBreaker}. While it is open the fetch fails at once
+ * with {@link FetchException.Kind#CIRCUIT_OPEN}, so the {@link FetchEngine} shows the cached
+ * News instead of adding load to a server which is unhealthy.
+ */
+
+public final class ResilientSource implements NewsSource {
+
+    public static final String LOG_TAG = ResilientSource.class.getSimpleName();
+
+    private final NewsSource mSource;
+    private final CircuitBreaker mCircuitBreaker;
+    private final int mMaxAttempts;
+    private final long mBaseDelayMillis;
+    private final long mMaxDelayMillis;
+    private final Random mRandom = new Random();
+
+    /**
+     * Create a source which sends every request at most maxAttempts times.
+     */
+    public ResilientSource(NewsSource source, CircuitBreaker circuitBreaker, int maxAttempts,
+                           long baseDelayMillis, long maxDelayMillis) {
+        mSource = source;
+        mCircuitBreaker = circuitBreaker;
+        mMaxAttempts = Math.max(1, maxAttempts);
+        mBaseDelayMillis = baseDelayMillis;
+        mMaxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public List<News> fetch(String url, FetchCancellation cancellation)
+            throws FetchException {
+        FetchException lastFailure = null;
+        for (int attempt = 1; ; attempt++) {
+            if (!mCircuitBreaker.allowRequest()) {
+                if (lastFailure != null) {
+                    throw lastFailure;
+                }
+                long remaining = mCircuitBreaker.getRemainingOpenMillis();
+                throw new FetchException(FetchException.Kind.CIRCUIT_OPEN,
+                        "Requests paused for " + remaining + " ms",
+                        FetchException.NO_RESPONSE_CODE, remaining, null);
+            }
+
+            try {
+                List<News> newsList = mSource.fetch(url, cancellation);
+                if (newsList == null) {
+                    // Canceled.
+                    mCircuitBreaker.release();
+                    return null;
+                }
+                mCircuitBreaker.recordSuccess();
+                return newsList;
+            } catch (FetchException e) {
+                if (e.getKind() == FetchException.Kind.QUOTA_EXCEEDED) {
+                    // The request was not sent, it tells nothing about the server.
+                    mCircuitBreaker.release();
+                    throw e;
+                }
+                if (!e.isRetryable()) {
+                    // The server answered, it is healthy even if the request was wrong.
+                    mCircuitBreaker.recordSuccess();
+                    throw e;
+                }
+                mCircuitBreaker.recordFailure(e.getRetryAfterMillis());
+                lastFailure = e;
+            } catch (RuntimeException e) {
+                // Finish the request at the circuit breaker, else a trial request would keep
+                // the circuit half open forever.
+                mCircuitBreaker.recordFailure(FetchException.NO_RETRY_AFTER);
+                throw e;
+            }
+
+            long delay = Math.max(backoffMillis(attempt), lastFailure.getRetryAfterMillis());
+            if (attempt >= mMaxAttempts || delay > mMaxDelayMillis) {
+                throw lastFailure;
+            }
+            NewsLog.i(LOG_TAG, "Retry " + attempt + " in " + delay + " ms after "
+                    + lastFailure.getKind());
+            if (!cancellation.sleep(delay)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Return the delay before the given retry: half of the exponential delay plus a random
+     * part of the other half.
+     */
+    private long backoffMillis(int attempt) {
+        long delay = mBaseDelayMillis;
+        for (int i = 1; i < attempt && delay < mMaxDelayMillis; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, mMaxDelayMillis);
+        long half = delay / 2;
+        return half + (long) (mRandom.nextDouble() * (delay - half));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Table of the section names. Every News only keeps the small id of its section, the name
+ * ("World news", "Sport", ...) exists once for all News. The Guardian has less than a hundred
+ * sections, so the table stays small. Ids are only valid inside the running process.
+ */
+
+public final class Sections {
+
+    //Initial capacity of the table.
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Map<String, Integer> sIds = new HashMap<>(INITIAL_CAPACITY);
+
+    //Copy-on-write array of the names, so names can be read without a lock.
+    private static volatile String[] sNames = new String[0];
+
+    private Sections() {
+    }
+
+    /**
+     * Return the id of the section, the section is added to the table if it is new.
+     */
+    public static int idOf(String name) {
+        synchronized (sIds) {
+            Integer id = sIds.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] names = Arrays.copyOf(sNames, sNames.length + 1);
+            int newId = sNames.length;
+            names[newId] = name;
+            sIds.put(name, newId);
+            sNames = names;
+            return newId;
+        }
+    }
+
+    /**
+     * Return the name of the section with the id.
+     */
+    public static String nameOf(int id) {
+        return sNames[id];
+    }
+}
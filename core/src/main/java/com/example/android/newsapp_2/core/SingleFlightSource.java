@@ -0,0 +1,230 @@
+package com.example.android.newsapp_2.core;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets concurrent fetches of the same query share one request of the wrapped
+ * {@link NewsSource}. The first caller of a URL fetches it, callers which arrive while it is
+ * running wait for it and get the same immutable list or the same {@link FetchException}.
+ * URLs which only differ in the order of their query parameters, the case of the host or a
+ * default port are the same query.
+ * <p>
+ * A canceled caller stops waiting and gets null. The shared request is only canceled when all
+ * of its callers are canceled.
+ */
+
+public final class SingleFlightSource implements NewsSource {
+
+    public static final String LOG_TAG = SingleFlightSource.class.getSimpleName();
+
+    private static final int HTTP_DEFAULT_PORT = 80;
+    private static final int HTTPS_DEFAULT_PORT = 443;
+
+    private final NewsSource mSource;
+
+    //The running fetches by their normalized URL.
+    private final Map<String, Flight> mFlights = new HashMap<>();
+
+    public SingleFlightSource(NewsSource source) {
+        mSource = source;
+    }
+
+    @Override
+    public List<News> fetch(String url, FetchCancellation cancellation)
+            throws FetchException {
+        String key = normalize(url);
+        Flight flight;
+        boolean leader = false;
+        synchronized (mFlights) {
+            flight = mFlights.get(key);
+            if (flight == null) {
+                flight = new Flight(key);
+                mFlights.put(key, flight);
+                leader = true;
+            }
+            flight.mCallers++;
+        }
+
+        Departure departure = new Departure(flight);
+        cancellation.setOnCancel(departure);
+        try {
+            if (leader) {
+                run(url, flight);
+            } else {
+                NewsLog.i(LOG_TAG, "Joined running fetch of " + key);
+                try {
+                    flight.await(cancellation);
+                } catch (InterruptedException e) {
+                    // The caller was canceled while it waited.
+                    departure.run();
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        } finally {
+            cancellation.setOnCancel(null);
+        }
+        if (cancellation.isCanceled()) {
+            return null;
+        }
+        if (flight.mFailure != null) {
+            throw flight.mFailure;
+        }
+        return flight.mNewsList;
+    }
+
+    /**
+     * Fetch the URL for all callers of the flight and wake up the waiting ones.
+     */
+    private void run(String url, Flight flight) {
+        List<News> newsList = null;
+        try {
+            newsList = mSource.fetch(url, flight.mCancellation);
+        } catch (FetchException e) {
+            flight.mFailure = e;
+        } finally {
+            synchronized (mFlights) {
+                if (mFlights.get(flight.mKey) == flight) {
+                    mFlights.remove(flight.mKey);
+                }
+            }
+            flight.finish(newsList == null ? null : Collections.unmodifiableList(newsList));
+        }
+    }
+
+    /**
+     * Return the number of callers of the running fetch of the URL, used by the tests to know
+     * when all callers joined.
+     */
+    int getCallerCount(String url) {
+        synchronized (mFlights) {
+            Flight flight = mFlights.get(normalize(url));
+            return flight == null ? 0 : flight.mCallers;
+        }
+    }
+
+    /**
+     * Return the URL in a form which is the same for all URLs of the same query. URLs which
+     * can't be parsed are returned unchanged.
+     */
+    static String normalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return url;
+        }
+        if (uri.isOpaque() || uri.getScheme() == null || uri.getHost() == null
+                || uri.getRawUserInfo() != null) {
+            return url;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.US);
+        StringBuilder normalized = new StringBuilder(url.length());
+        normalized.append(scheme).append("://").append(uri.getHost().toLowerCase(Locale.US));
+        int port = uri.getPort();
+        boolean defaultPort = ("http".equals(scheme) && port == HTTP_DEFAULT_PORT)
+                || ("https".equals(scheme) && port == HTTPS_DEFAULT_PORT);
+        if (port != -1 && !defaultPort) {
+            normalized.append(':').append(port);
+        }
+        String path = uri.getRawPath();
+        normalized.append(path == null || path.isEmpty() ? "/" : path);
+
+        // The order of the query parameters does not change the results.
+        String query = uri.getRawQuery();
+        if (query != null) {
+            List<String> parameters = new ArrayList<>();
+            for (String parameter : query.split("&")) {
+                if (!parameter.isEmpty()) {
+                    parameters.add(parameter);
+                }
+            }
+            Collections.sort(parameters);
+            char separator = '?';
+            for (String parameter : parameters) {
+                normalized.append(separator).append(parameter);
+                separator = '&';
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * One running fetch and the number of its callers which still wait for it. The waiting
+     * callers are woken up on its monitor when it finishes or one of them is canceled.
+     */
+    private static final class Flight {
+        final String mKey;
+        final FetchCancellation mCancellation = new FetchCancellation();
+        //Guarded by mFlights.
+        int mCallers;
+        //Written before the flight is finished.
+        volatile List<News> mNewsList;
+        volatile FetchException mFailure;
+        //Guarded by this.
+        private boolean mFinished;
+
+        Flight(String key) {
+            mKey = key;
+        }
+
+        synchronized void finish(List<News> newsList) {
+            mNewsList = newsList;
+            mFinished = true;
+            notifyAll();
+        }
+
+        //Wait until the flight is finished or the caller is canceled.
+        synchronized void await(FetchCancellation cancellation) throws InterruptedException {
+            while (!mFinished && !cancellation.isCanceled()) {
+                wait();
+            }
+        }
+
+        //Let the waiting callers check whether they were canceled.
+        synchronized void wakeUp() {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Removes a canceled caller from its flight. The flight is canceled with its last caller.
+     */
+    private final class Departure implements Runnable {
+        private final Flight mFlight;
+        private final AtomicBoolean mDeparted = new AtomicBoolean();
+
+        Departure(Flight flight) {
+            mFlight = flight;
+        }
+
+        @Override
+        public void run() {
+            if (!mDeparted.compareAndSet(false, true)) {
+                return;
+            }
+            boolean lastCaller;
+            synchronized (mFlights) {
+                lastCaller = --mFlight.mCallers == 0;
+                if (lastCaller && mFlights.get(mFlight.mKey) == mFlight) {
+                    // Nobody waits anymore, new callers start a new fetch.
+                    mFlights.remove(mFlight.mKey);
+                }
+            }
+            if (lastCaller) {
+                mFlight.mCancellation.cancel();
+            }
+            // A caller which waits for the flight stops waiting.
+            mFlight.wakeUp();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.android.newsapp_2.core;
+
+import java.util.List;
+
+/**
+ * Adapts the interval of a periodic background sync to how often the feed really changes. A
+ * sync which found other News than the last one halves the interval, a sync without changes
+ * doubles it, always between the minimum and the maximum interval.
+ */
+
+public final class SyncInterval {
+
+    //Fingerprint of a feed which could not be loaded.
+    public static final long NO_FINGERPRINT = 0;
+
+    private final long mMinMillis;
+    private final long mMaxMillis;
+
+    public SyncInterval(long minMillis, long maxMillis) {
+        mMinMillis = minMillis;
+        mMaxMillis = Math.max(minMillis, maxMillis);
+    }
+
+    /**
+     * Return the interval after a sync which waited currentMillis and found changed News or not.
+     */
+    public long next(long currentMillis, boolean changed) {
+        long next = changed ? currentMillis / 2 : currentMillis * 2;
+        return Math.max(mMinMillis, Math.min(mMaxMillis, next));
+    }
+
+    public long getMinMillis() {
+        return mMinMillis;
+    }
+
+    public long getMaxMillis() {
+        return mMaxMillis;
+    }
+
+    /**
+     * Return a number which changes when the News of the feed or their order change, so the
+     * feed of the last sync doesn't have to be stored to compare it.
+     */
+    public static long fingerprint(List<News> newsList) {
+        if (newsList == null || newsList.isEmpty()) {
+            return NO_FINGERPRINT;
+        }
+        long fingerprint = 17;
+        for (News news : newsList) {
+            fingerprint = 31 * fingerprint + news.getUrlHash();
+        }
+        return fingerprint == NO_FINGERPRINT ? 1 : fingerprint;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.android.newsapp_2.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * {@link HttpTransport} based on {@link HttpURLConnection}. The connections are never
+ * disconnected: a response body which is read to the end and closed gives the socket back to
+ * the connection pool of the platform, so following requests to content.guardianapis.com reuse
+ * the keep-alive connection instead of doing a new TCP and TLS handshake.
+ */
+
+public class UrlConnectionTransport implements HttpTransport {
+
+    //Variables to handle timeouts in the request.
+    private static final int URL_CONNECTION_READ_TIMEOUT = 10000;
+    private static final int URL_CONNECTION_CONNECT_TIMEOUT = 15000;
+
+    //String to handle request method in the request.
+    private static final String REQUEST_GET = "GET";
+
+    //System property of the connection pool of HttpURLConnection.
+    private static final String PROPERTY_MAX_CONNECTIONS = "http.maxConnections";
+    private static final String MAX_IDLE_CONNECTIONS = "5";
+
+    //Size of the buffer to skip the rest of a response body.
+    private static final int DRAIN_BUFFER_SIZE = 4096;
+
+    //Integer returned by InputStream.read() at the end of the stream.
+    private static final int END_OF_STREAM = -1;
+
+    public UrlConnectionTransport() {
+        // Keep-alive is the default and an explicit "http.keepAlive" is left alone. Only the
+        // size of the pool is set, if nobody chose one.
+        if (System.getProperty(PROPERTY_MAX_CONNECTIONS) == null) {
+            System.setProperty(PROPERTY_MAX_CONNECTIONS, MAX_IDLE_CONNECTIONS);
+        }
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> headers) throws IOException {
+        if (NewsMetrics.isEnabled()) {
+            // HttpURLConnection doesn't report its phases, so the host is resolved before
+            // the connection is opened. The connection then finds the address in the DNS
+            // cache of the platform and FETCH_CONNECT minus FETCH_DNS is the handshake.
+            long dnsStart = NewsMetrics.start();
+            InetAddress.getAllByName(url.getHost());
+            NewsMetrics.recordSince(NewsMetrics.Metric.FETCH_DNS, dnsStart);
+        }
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        urlConnection.setReadTimeout(URL_CONNECTION_READ_TIMEOUT /* milliseconds */);
+        urlConnection.setConnectTimeout(URL_CONNECTION_CONNECT_TIMEOUT /* milliseconds */);
+        urlConnection.setRequestMethod(REQUEST_GET);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            urlConnection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        urlConnection.connect();
+        return new UrlConnectionResponse(urlConnection);
+    }
+
+    private static final class UrlConnectionResponse implements Response {
+
+        private final HttpURLConnection mUrlConnection;
+        private InputStream mBody;
+
+        UrlConnectionResponse(HttpURLConnection urlConnection) {
+            mUrlConnection = urlConnection;
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return mUrlConnection.getResponseCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return mUrlConnection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (mBody == null) {
+                mBody = mUrlConnection.getInputStream();
+            }
+            return mBody;
+        }
+
+        @Override
+        public void abort() {
+            mUrlConnection.disconnect();
+        }
+
+        /**
+         * Read the rest of the body and close it, so the connection goes back into the pool.
+         * Error responses have their body in the error stream.
+         */
+        @Override
+        public void close() throws IOException {
+            InputStream body = mBody != null ? mBody : mUrlConnection.getErrorStream();
+            if (body == null) {
+                try {
+                    body = mUrlConnection.getInputStream();
+                } catch (IOException e) {
+                    // There is no body to give back, the connection can't be reused.
+                    mUrlConnection.disconnect();
+                    return;
+                }
+            }
+            try {
+                byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+                while (body.read(buffer) != END_OF_STREAM) {
+                    // Skip the rest of the body.
+                }
+            } finally {
+                body.close();
+            }
+        }
+    }
+}
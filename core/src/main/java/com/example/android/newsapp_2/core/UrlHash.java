@@ -0,0 +1,34 @@
+package com.example.android.newsapp_2.core;
+
+/**
+ * 64-bit FNV-1a hash of a url. It is used wherever a {@link News} needs a compact identity,
+ * e.g. the stable ids of the list in the app. The hash is computed over the chars directly,
+ * so nothing is allocated.
+ */
+
+public final class UrlHash {
+
+    //Offset basis and prime of the 64-bit FNV-1a hash.
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    //Mask of the lower byte of a char.
+    private static final int BYTE_MASK = 0xff;
+    private static final int BITS_PER_BYTE = 8;
+
+    private UrlHash() {
+    }
+
+    public static long hash64(CharSequence url) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            // Hash both bytes of the char.
+            hash ^= c & BYTE_MASK;
+            hash *= FNV_PRIME;
+            hash ^= c >>> BITS_PER_BYTE;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the offline articles of the {@link ArticleStore}, the
+ * {@link ArticleSource} which fills it and the {@link ArticlePrefetcher}.
+ */
+public class ArticleStoreTest {
+
+    private static final String FIRST_URL = "https://www.theguardian.com/first";
+    private static final String SECOND_URL = "https://www.theguardian.com/second";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void storedBody_isReadBackCompressedOnDisk() {
+        ArticleStore store = new ArticleStore(folder.getRoot(), 1024 * 1024);
+        String body = repeat("<p>The same paragraph of the article.</p>", 100);
+
+        store.put(FIRST_URL, body);
+
+        assertTrue(store.contains(FIRST_URL));
+        assertEquals(body, store.get(FIRST_URL));
+        assertNull(store.get(SECOND_URL));
+        File[] files = folder.getRoot().listFiles();
+        assertEquals(1, files.length);
+        assertTrue(files[0].length() < body.length() / 4);
+    }
+
+    @Test
+    public void loadedStore_knowsStoredArticlesWithoutTheDisk() {
+        new ArticleStore(folder.getRoot(), 1024 * 1024).put(FIRST_URL, "<p>First body</p>");
+        ArticleStore store = new ArticleStore(folder.getRoot(), 1024 * 1024);
+
+        store.load();
+
+        assertTrue(store.contains(FIRST_URL));
+        assertFalse(store.contains(SECOND_URL));
+        store.put(SECOND_URL, "<p>Second body</p>");
+        assertTrue(store.contains(SECOND_URL));
+        // A deleted article is forgotten when it is read.
+        for (File file : folder.getRoot().listFiles()) {
+            file.delete();
+        }
+        assertNull(store.get(FIRST_URL));
+        assertFalse(store.contains(FIRST_URL));
+    }
+
+    @Test
+    public void leastRecentlyReadArticle_isRemovedAboveMaxSize() throws Exception {
+        String body = repeat("x", 100);
+        ArticleStore store = new ArticleStore(folder.getRoot(), 100);
+        store.put(FIRST_URL, body);
+        // Make the first article older than the second one.
+        for (File file : folder.getRoot().listFiles()) {
+            file.setLastModified(System.currentTimeMillis() - 60 * 1000);
+        }
+
+        store.put(SECOND_URL, body);
+
+        assertFalse(store.contains(FIRST_URL));
+        assertEquals(body, store.get(SECOND_URL));
+    }
+
+    @Test
+    public void articleSource_storesBodiesOfResponse() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"response\":{\"results\":["
+                + "{\"webTitle\":\"First\",\"sectionName\":\"World news\","
+                + "\"webPublicationDate\":\"2018-06-09T15:16:54Z\",\"webUrl\":\"" + FIRST_URL
+                + "\",\"fields\":{\"byline\":\"Jane Doe\",\"body\":\"<p>First body</p>\"}},"
+                + "{\"webTitle\":\"Second\",\"sectionName\":\"World news\","
+                + "\"webPublicationDate\":\"2018-06-09T09:00:00Z\",\"webUrl\":\"" + SECOND_URL
+                + "\"}]}}"));
+        ArticleStore store = new ArticleStore(folder.getRoot(), 1024 * 1024);
+
+        List<News> newsList = new ArticleSource(store).fetch(
+                server.url("/search?show-fields=body").toString(), new FetchCancellation());
+
+        assertEquals(2, newsList.size());
+        assertEquals("Jane Doe", newsList.get(0).getAuthor());
+        assertEquals("<p>First body</p>", store.get(FIRST_URL));
+        assertFalse(store.contains(SECOND_URL));
+    }
+
+    @Test
+    public void prefetcher_fetchesOnlyQueriesWithMissingTopNews() {
+        ArticleStore store = new ArticleStore(folder.getRoot(), 1024 * 1024);
+        store.put(FIRST_URL, "<p>First body</p>");
+        final List<String> fetchedUrls = new ArrayList<>();
+        NewsSource source = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                fetchedUrls.add(url);
+                return Collections.emptyList();
+            }
+        };
+        ArticlePrefetcher prefetcher = new ArticlePrefetcher(source, store, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        News first = new News("First", "World news", 2L, "", FIRST_URL);
+        News second = new News("Second", "Sport", 1L, "", SECOND_URL);
+
+        // The top News of the world query are stored, the one of sport is not and nothing
+        // was loaded for culture. The second News of the world query is not a top News.
+        prefetcher.prefetch(Arrays.asList("world", "sport", "culture"),
+                Arrays.asList(Arrays.asList(first, second), Collections.singletonList(second),
+                        null), 1);
+
+        assertEquals(Collections.singletonList("sport"), fetchedUrls);
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
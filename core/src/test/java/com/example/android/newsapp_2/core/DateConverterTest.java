@@ -0,0 +1,68 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link DateConverter}.
+ */
+public class DateConverterTest {
+
+    @Test
+    public void morningDate_isParsed() throws Exception {
+        assertEquals(expected("2018-06-09T09:05:01Z"),
+                DateConverter.parseIso8601("2018-06-09T09:05:01Z"));
+    }
+
+    @Test
+    public void afternoonDate_isParsedAs24Hours() throws Exception {
+        assertEquals(expected("2018-06-09T15:16:54Z"),
+                DateConverter.parseIso8601("2018-06-09T15:16:54Z"));
+    }
+
+    @Test
+    public void leapDayAndEpoch_areParsed() throws Exception {
+        assertEquals(expected("2016-02-29T23:59:59Z"),
+                DateConverter.parseIso8601("2016-02-29T23:59:59Z"));
+        assertEquals(0L, DateConverter.parseIso8601("1970-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void fractionOfSecond_keepsMillis() throws Exception {
+        assertEquals(expected("2018-06-09T15:16:54Z") + 120,
+                DateConverter.parseIso8601("2018-06-09T15:16:54.12Z"));
+    }
+
+    @Test
+    public void invalidDates_returnNoDate() {
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601(""));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601(null));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-06-09"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-06-09T25:00:00Z"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-06-09T15:16:54+01:00"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-O6-09T15:16:54Z"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2O18-06-09T15:16:54Z"));
+    }
+
+    @Test
+    public void dayAfterEndOfMonth_returnsNoDate() {
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-02-31T15:16:54Z"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-02-29T15:16:54Z"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("1900-02-29T15:16:54Z"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-04-31T15:16:54Z"));
+        assertEquals(News.NO_DATE, DateConverter.parseIso8601("2018-12-32T15:16:54Z"));
+        assertEquals(DateConverter.parseIso8601("2000-03-01T00:00:00Z") - 86400000L,
+                DateConverter.parseIso8601("2000-02-29T00:00:00Z"));
+    }
+
+    private static long expected(String date) throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.UK);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.parse(date).getTime();
+    }
+}
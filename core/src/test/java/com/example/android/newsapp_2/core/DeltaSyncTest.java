@@ -0,0 +1,78 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Local unit tests for the refresh of only the newer News, {@link DeltaSync}.
+ */
+public class DeltaSyncTest {
+
+    private static final String NEWEST_URL =
+            "https://content.guardianapis.com/search?q=test&order-by=newest&page=1";
+
+    //2018-06-09T15:16:54Z
+    private static final long JUNE_9 = 1528557414000L;
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    public void firstPageByNewest_asksFromDayOfNewestNews() {
+        List<News> known = Arrays.asList(news("b", JUNE_9), news("a", JUNE_9 - 48 * HOUR));
+
+        assertEquals(NEWEST_URL + "&from-date=2018-06-09", DeltaSync.deltaUrl(NEWEST_URL, known));
+    }
+
+    @Test
+    public void otherQueries_areFetchedCompletely() {
+        List<News> known = Collections.singletonList(news("a", JUNE_9));
+
+        assertNull(DeltaSync.deltaUrl(NEWEST_URL.replace("newest", "relevance"), known));
+        assertNull(DeltaSync.deltaUrl(NEWEST_URL.replace("page=1", "page=2"), known));
+        assertNull(DeltaSync.deltaUrl(NEWEST_URL, null));
+        assertNull(DeltaSync.deltaUrl(NEWEST_URL,
+                Collections.singletonList(news("a", News.NO_DATE))));
+    }
+
+    @Test
+    public void delta_isMergedOnTopOfKnownNews() {
+        List<News> known = Arrays.asList(news("c", 30), news("b", 20), news("a", 10));
+        List<News> delta = Arrays.asList(news("d", 40), news("c", 30));
+
+        assertEquals(Arrays.asList("d", "c", "b"), urlsOf(DeltaSync.merge(known, delta)));
+    }
+
+    @Test
+    public void deltaWithGap_replacesKnownNews() {
+        List<News> known = Arrays.asList(news("b", 20), news("a", 10));
+        List<News> delta = Arrays.asList(news("e", 50), news("d", 40));
+
+        assertEquals(Arrays.asList("e", "d"), urlsOf(DeltaSync.merge(known, delta)));
+    }
+
+    @Test
+    public void emptyDelta_keepsKnownNews() {
+        List<News> known = Arrays.asList(news("b", 20), news("a", 10));
+
+        assertSame(known, DeltaSync.merge(known, Collections.<News>emptyList()));
+    }
+
+    private static News news(String url, long timeInMillis) {
+        return new News("Title " + url, "World news", timeInMillis, "", url);
+    }
+
+    private static List<String> urlsOf(List<News> newsList) {
+        List<String> urls = new ArrayList<>();
+        for (News news : newsList) {
+            urls.add(news.getUrl());
+        }
+        return urls;
+    }
+}
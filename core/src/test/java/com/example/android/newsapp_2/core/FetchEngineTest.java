@@ -0,0 +1,378 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the {@link FetchEngine} with a fake source and store.
+ */
+public class FetchEngineTest {
+
+    private static final String URL = "https://content.guardianapis.com/search?q=test";
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private FetchEngine engine;
+
+    @After
+    public void shutdownEngine() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void storedNews_areDeliveredBeforeFetchedNews() throws Exception {
+        List<News> stored = newsList("stored");
+        List<News> fetched = newsList("fetched");
+        MapStore store = new MapStore();
+        store.put(URL, stored);
+        engine = new FetchEngine(new FixedSource(fetched), store, 1, 4,
+                TimeUnit.MINUTES.toMillis(5));
+
+        RecordingCallback callback = new RecordingCallback();
+        engine.load(URL, callback);
+
+        Delivery first = callback.next();
+        Delivery second = callback.next();
+        assertSame(stored, first.newsList);
+        assertFalse(first.fresh);
+        assertSame(fetched, second.newsList);
+        assertTrue(second.fresh);
+        assertSame(fetched, store.get(URL));
+    }
+
+    @Test
+    public void recentResult_isReusedWithoutFetch() throws Exception {
+        List<News> fetched = newsList("fetched");
+        FixedSource source = new FixedSource(fetched);
+        engine = new FetchEngine(source, new MapStore(), 1, 4, TimeUnit.MINUTES.toMillis(5));
+
+        RecordingCallback first = new RecordingCallback();
+        engine.load(URL, first);
+        assertSame(fetched, first.next().newsList);
+
+        RecordingCallback second = new RecordingCallback();
+        engine.load(URL, second);
+        Delivery delivery = second.next();
+        assertSame(fetched, delivery.newsList);
+        assertTrue(delivery.fresh);
+        assertEquals(1, source.fetches.get());
+    }
+
+    @Test
+    public void oldResult_isNotFreshUntilItWasFetchedAgain() throws Exception {
+        FixedSource source = new FixedSource(newsList("fetched"));
+        engine = new FetchEngine(source, new MapStore(), 1, 4, 0);
+        RecordingCallback first = new RecordingCallback();
+        engine.load(URL, first);
+        first.next();
+
+        RecordingCallback second = new RecordingCallback();
+        engine.load(URL, second);
+
+        assertFalse(second.next().fresh);
+        assertTrue(second.next().fresh);
+        assertNull(second.deliveries.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, source.fetches.get());
+    }
+
+    @Test
+    public void canceledRequest_deliversNothing() throws Exception {
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        NewsSource blockingSource = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                fetchStarted.countDown();
+                while (!cancellation.isCanceled()) {
+                    Thread.yield();
+                }
+                return newsList("too late");
+            }
+        };
+        engine = new FetchEngine(blockingSource, new MapStore(), 1, 4, 0);
+
+        RecordingCallback callback = new RecordingCallback();
+        FetchEngine.Request request = engine.load(URL, callback);
+        assertTrue(fetchStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        request.cancel();
+
+        assertTrue(request.isCanceled());
+        assertNull(callback.deliveries.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void failedFetch_deliversStoredNewsAndFailure() throws Exception {
+        List<News> stored = newsList("stored");
+        MapStore store = new MapStore();
+        store.put(URL, stored);
+        NewsSource failingSource = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation)
+                    throws FetchException {
+                throw FetchException.forResponseCode(503, FetchException.NO_RETRY_AFTER);
+            }
+        };
+        engine = new FetchEngine(failingSource, store, 1, 4, 0);
+
+        RecordingCallback callback = new RecordingCallback();
+        FetchEngine.Request request = engine.load(URL, callback);
+
+        assertFalse(callback.next().fresh);
+        Delivery last = callback.next();
+        assertSame(stored, last.newsList);
+        assertTrue(last.fresh);
+        assertEquals(FetchException.Kind.SERVER_ERROR, request.getFailure().getKind());
+    }
+
+    @Test
+    public void crashingSource_stillDeliversFinalResult() throws Exception {
+        List<News> stored = newsList("stored");
+        MapStore store = new MapStore();
+        store.put("q=world", stored);
+        NewsSource crashingSource = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                throw new IllegalStateException("Broken source");
+            }
+        };
+        engine = new FetchEngine(crashingSource, store, 2, 4, 0);
+
+        RecordingCallback callback = new RecordingCallback();
+        FetchEngine.Request request = engine.loadAll(Arrays.asList("q=world", "q=sport"), 2,
+                true, callback);
+
+        Delivery delivery = callback.next();
+        while (!delivery.fresh) {
+            delivery = callback.next();
+        }
+        assertEquals(stored, delivery.newsList);
+        assertEquals(FetchException.Kind.INVALID_RESPONSE, request.getFailure().getKind());
+        assertTrue(request.getFailure().getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void loadAll_mergesQueriesIntoOneFeed() throws Exception {
+        final Map<String, List<News>> results = new HashMap<>();
+        results.put("q=world", Arrays.asList(
+                new News("World", "World news", 30L, "", "https://example.com/world"),
+                new News("Shared", "World news", 10L, "", "https://example.com/shared")));
+        results.put("q=sport", Arrays.asList(
+                new News("Sport", "Sport", 20L, "", "https://example.com/sport"),
+                new News("Shared", "Sport", 10L, "", "https://example.com/shared")));
+        NewsSource source = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                return results.get(url);
+            }
+        };
+        engine = new FetchEngine(source, new MapStore(), 2, 4, TimeUnit.MINUTES.toMillis(5));
+
+        RecordingCallback callback = new RecordingCallback();
+        engine.loadAll(Arrays.asList("q=world", "q=sport"), 1, true, callback);
+
+        Delivery delivery = callback.next();
+        while (!delivery.fresh) {
+            delivery = callback.next();
+        }
+        assertEquals(3, delivery.newsList.size());
+        assertEquals("World", delivery.newsList.get(0).getTitle());
+        assertEquals("Sport", delivery.newsList.get(1).getTitle());
+        assertEquals("Shared", delivery.newsList.get(2).getTitle());
+    }
+
+    @Test
+    public void loadAll_afterRefreshInterval_deliversRefetchedQueries() throws Exception {
+        final AtomicInteger generation = new AtomicInteger(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        NewsSource source = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation)
+                    throws FetchException {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                if (generation.get() == 2 && url.equals("q=sport")) {
+                    throw FetchException.forResponseCode(503, FetchException.NO_RETRY_AFTER);
+                }
+                return newsList(url + " gen" + generation.get());
+            }
+        };
+        engine = new FetchEngine(source, new MapStore(), 2, 4, 0);
+        List<String> urls = Arrays.asList("q=world", "q=sport", "q=culture");
+        RecordingCallback first = new RecordingCallback();
+        engine.loadAll(urls, 1, true, first);
+        while (!first.next().fresh) {
+            // Wait until all queries of the first generation were fetched.
+        }
+
+        generation.set(2);
+        RecordingCallback second = new RecordingCallback();
+        FetchEngine.Request request = engine.loadAll(urls, 1, true, second);
+        Delivery delivery = second.next();
+        while (!delivery.fresh) {
+            delivery = second.next();
+        }
+
+        List<String> titles = new ArrayList<>();
+        for (News news : delivery.newsList) {
+            titles.add(news.getTitle());
+        }
+        assertTrue(titles.contains("q=world gen2"));
+        assertTrue(titles.contains("q=sport gen1"));
+        assertTrue(titles.contains("q=culture gen2"));
+        assertEquals(3, titles.size());
+        assertEquals(1, maxRunning.get());
+        assertEquals(FetchException.Kind.SERVER_ERROR, request.getFailure().getKind());
+    }
+
+    @Test
+    public void queryResults_areKeptAndOnlyFetchedResultsAreFetched() throws Exception {
+        final Map<String, List<News>> results = new HashMap<>();
+        results.put("q=world", newsList("world"));
+        results.put("q=sport", newsList("sport"));
+        NewsSource source = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                return results.get(url);
+            }
+        };
+        engine = new FetchEngine(source, new MapStore(), 2, 4, TimeUnit.MINUTES.toMillis(5));
+        List<String> urls = Arrays.asList("q=world", "q=sport");
+
+        RecordingCallback first = new RecordingCallback();
+        FetchEngine.Request fetchedRequest = engine.loadAll(urls, 2, true, first);
+        while (!first.next().fresh) {
+            // Wait for the final result.
+        }
+        assertTrue(fetchedRequest.isFetched());
+        assertEquals(Arrays.asList(results.get("q=world"), results.get("q=sport")),
+                fetchedRequest.getQueryResults());
+
+        // Both queries are recent in memory now.
+        RecordingCallback second = new RecordingCallback();
+        FetchEngine.Request rememberedRequest = engine.loadAll(urls, 2, true, second);
+        while (!second.next().fresh) {
+            // Wait for the final result.
+        }
+        assertFalse(rememberedRequest.isFetched());
+        assertEquals(fetchedRequest.getQueryResults(), rememberedRequest.getQueryResults());
+
+        FetchEngine.Request single = engine.load("q=world", new RecordingCallback());
+        assertFalse(single.isFetched());
+        assertEquals(Collections.singletonList(results.get("q=world")),
+                single.getQueryResults());
+    }
+
+    @Test
+    public void storedNewestFirstQuery_fetchesOnlyNewerNews() throws Exception {
+        String newestUrl = URL + "&order-by=newest";
+        News known = new News("Known", "World news", 1528557414000L, "",
+                "https://example.com/known");
+        final News newer = new News("Newer", "World news", 1528560000000L, "",
+                "https://example.com/newer");
+        MapStore store = new MapStore();
+        store.put(newestUrl, Collections.singletonList(known));
+        final List<String> fetchedUrls = Collections.synchronizedList(new ArrayList<String>());
+        NewsSource source = new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                fetchedUrls.add(url);
+                return Arrays.asList(newer, new News("Known", "World news", 1528557414000L, "",
+                        "https://example.com/known"));
+            }
+        };
+        engine = new FetchEngine(source, store, 1, 4, 0);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine.load(newestUrl, callback);
+        callback.next();
+        Delivery fresh = callback.next();
+
+        assertEquals(Collections.singletonList(newestUrl + "&from-date=2018-06-09"), fetchedUrls);
+        assertEquals(2, fresh.newsList.size());
+        assertSame(newer, fresh.newsList.get(0));
+        assertSame(fresh.newsList, store.get(newestUrl));
+    }
+
+    private static List<News> newsList(String title) {
+        List<News> newsList = new ArrayList<>();
+        newsList.add(new News(title, "World news", 1L, "", "https://example.com/" + title));
+        return Collections.unmodifiableList(newsList);
+    }
+
+    private static final class FixedSource implements NewsSource {
+        final AtomicInteger fetches = new AtomicInteger();
+        private final List<News> mNewsList;
+
+        FixedSource(List<News> newsList) {
+            mNewsList = newsList;
+        }
+
+        @Override
+        public List<News> fetch(String url, FetchCancellation cancellation) {
+            fetches.incrementAndGet();
+            return mNewsList;
+        }
+    }
+
+    private static final class MapStore implements NewsStore {
+        private final Map<String, List<News>> mEntries = new HashMap<>();
+
+        @Override
+        public synchronized List<News> get(String url) {
+            return mEntries.get(url);
+        }
+
+        @Override
+        public synchronized void put(String url, List<News> newsList) {
+            mEntries.put(url, newsList);
+        }
+    }
+
+    private static final class Delivery {
+        final List<News> newsList;
+        final boolean fresh;
+
+        Delivery(List<News> newsList, boolean fresh) {
+            this.newsList = newsList;
+            this.fresh = fresh;
+        }
+    }
+
+    private static final class RecordingCallback implements FetchEngine.Callback {
+        final LinkedBlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onNewsLoaded(String url, List<News> newsList, boolean fresh) {
+            deliveries.add(new Delivery(newsList, fresh));
+        }
+
+        Delivery next() throws InterruptedException {
+            Delivery delivery = deliveries.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertTrue("No result delivered", delivery != null);
+            return delivery;
+        }
+    }
+}
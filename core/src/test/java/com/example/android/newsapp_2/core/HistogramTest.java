@@ -0,0 +1,68 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the lock-free {@link Histogram} of the {@link NewsMetrics}.
+ */
+public class HistogramTest {
+
+    @Test
+    public void percentiles_areWithinAQuarterOfTheValue() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500, snapshot.getMean());
+        assertEquals(1000, snapshot.getMax());
+        assertBetween(500, 625, snapshot.getPercentile(0.5));
+        assertBetween(990, 1000, snapshot.getPercentile(0.99));
+        assertEquals(1, snapshot.getPercentile(0.0001));
+    }
+
+    @Test
+    public void concurrentRecords_areAllCounted() throws Exception {
+        final Histogram histogram = new Histogram();
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int value = 0; value < 10000; value++) {
+                        histogram.record(value);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(40000, snapshot.getCount());
+        assertEquals(9999, snapshot.getMax());
+    }
+
+    @Test
+    public void disabledMetrics_recordNothing() {
+        NewsMetrics.reset();
+        NewsMetrics.setEnabled(false);
+        NewsMetrics.record(NewsMetrics.Metric.PARSE_ITEMS, 20);
+        NewsMetrics.recordSince(NewsMetrics.Metric.BIND, NewsMetrics.start());
+
+        assertEquals(0, NewsMetrics.Metric.PARSE_ITEMS.getHistogram().snapshot().getCount());
+        assertEquals(0, NewsMetrics.Metric.BIND.getHistogram().snapshot().getCount());
+    }
+
+    private static void assertBetween(long min, long max, long value) {
+        assertTrue(value + " not in [" + min + ", " + max + "]", value >= min && value <= max);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Local unit tests for the disk cache of {@link ImageFetcher}.
+ */
+public class ImageFetcherTest {
+
+    private static final int IMAGE_SIZE = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void cachedImage_isNotDownloadedAgain() throws Exception {
+        server.enqueue(imageResponse());
+        ImageFetcher fetcher = new ImageFetcher(folder.getRoot(), 10 * IMAGE_SIZE);
+
+        File first = fetcher.fetch(url("/first.jpg"), new FetchCancellation());
+        File second = fetcher.fetch(url("/first.jpg"), new FetchCancellation());
+
+        assertEquals(first, second);
+        assertEquals(IMAGE_SIZE, second.length());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedImage_isRemovedAboveMaxSize() throws Exception {
+        server.enqueue(imageResponse());
+        server.enqueue(imageResponse());
+        ImageFetcher fetcher = new ImageFetcher(folder.getRoot(), IMAGE_SIZE);
+
+        File first = fetcher.fetch(url("/first.jpg"), new FetchCancellation());
+        first.setLastModified(System.currentTimeMillis() - 60 * 1000);
+        File second = fetcher.fetch(url("/second.jpg"), new FetchCancellation());
+
+        assertFalse(first.exists());
+        assertTrue(second.exists());
+    }
+
+    @Test
+    public void errorResponse_isNotCached() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        ImageFetcher fetcher = new ImageFetcher(folder.getRoot(), 10 * IMAGE_SIZE);
+
+        try {
+            fetcher.fetch(url("/missing.jpg"), new FetchCancellation());
+            fail("Expected a FetchException");
+        } catch (FetchException e) {
+            assertEquals(FetchException.Kind.HTTP_ERROR, e.getKind());
+        }
+        assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    private static MockResponse imageResponse() {
+        return new MockResponse().setBody(new Buffer().write(new byte[IMAGE_SIZE]));
+    }
+
+    private String url(String path) {
+        return server.url(path).toString();
+    }
+}
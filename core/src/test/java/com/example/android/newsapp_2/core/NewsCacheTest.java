@@ -0,0 +1,125 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the expiry and the limits of the {@link NewsCache}, with a clock which
+ * only moves when the test moves it.
+ */
+public class NewsCacheTest {
+
+    private static final String URL = "https://content.guardianapis.com/search?q=world";
+    private static final long START_MILLIS = 1528557414000L;
+    private static final long SECOND_MILLIS = 1000L;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * SECOND_MILLIS;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long now = START_MILLIS;
+    private NewsCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new NewsCache(folder.getRoot(), new NewsCache.Clock() {
+            @Override
+            public long now() {
+                return now;
+            }
+        });
+    }
+
+    @Test
+    public void storedNews_areReadBack() {
+        List<News> newsList = newsList("world", 2, 10);
+
+        cache.put(URL, newsList);
+
+        List<News> cached = cache.get(URL);
+        assertEquals(2, cached.size());
+        assertEquals(newsList.get(0).getTitle(), cached.get(0).getTitle());
+        assertEquals(newsList.get(1).getUrl(), cached.get(1).getUrl());
+        assertEquals(2, cache.getAll().size());
+    }
+
+    @Test
+    public void entryOlderThanADay_isExpired() {
+        cache.put(URL, newsList("world", 1, 10));
+
+        now += DAY_MILLIS;
+        assertNotNull(cache.get(URL));
+
+        now += SECOND_MILLIS;
+        assertNull(cache.get(URL));
+        assertTrue(cache.getAll().isEmpty());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntry_isRemovedAboveThirtyEntries() {
+        for (int i = 0; i < 30; i++) {
+            cache.put(URL + i, newsList("query" + i, 1, 10));
+            now += SECOND_MILLIS;
+        }
+        // Reading the oldest entry makes the second one the least recently used.
+        assertNotNull(cache.get(URL + 0));
+        now += SECOND_MILLIS;
+
+        cache.put(URL + 30, newsList("query30", 1, 10));
+
+        assertNotNull(cache.get(URL + 0));
+        assertNull(cache.get(URL + 1));
+        assertNotNull(cache.get(URL + 2));
+        assertNotNull(cache.get(URL + 30));
+        assertEquals(30, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntry_isRemovedAboveTwoMegabytes() {
+        // Every entry has about 640 KB, so the fourth one goes over the limit.
+        for (int i = 0; i < 4; i++) {
+            cache.put(URL + i, newsList("query" + i, 600, 1000));
+            now += SECOND_MILLIS;
+        }
+
+        assertNull(cache.get(URL + 0));
+        assertNotNull(cache.get(URL + 1));
+        assertNotNull(cache.get(URL + 3));
+    }
+
+    @Test
+    public void entryOfAnotherUrlWithTheSameFileName_isIgnored() throws Exception {
+        String otherUrl = URL + "&page=2";
+        cache.put(URL, newsList("world", 1, 10));
+        // Pretend that the other URL has the same file name as the stored one.
+        File stored = new File(folder.getRoot(), CacheFiles.nameFor(URL));
+        assertTrue(stored.renameTo(new File(folder.getRoot(), CacheFiles.nameFor(otherUrl))));
+
+        assertNull(cache.get(otherUrl));
+    }
+
+    //Return count News whose titles have the given length.
+    private static List<News> newsList(String name, int count, int titleLength) {
+        StringBuilder title = new StringBuilder(name);
+        while (title.length() < titleLength) {
+            title.append('x');
+        }
+        List<News> newsList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            newsList.add(new News(title.toString(), "World news", START_MILLIS + i, "",
+                    "https://www.theguardian.com/" + name + "/" + i));
+        }
+        return newsList;
+    }
+}
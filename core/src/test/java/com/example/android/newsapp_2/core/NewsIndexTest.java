@@ -0,0 +1,105 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the search of {@link NewsIndex}.
+ */
+public class NewsIndexTest {
+
+    @Test
+    public void titleMatch_ranksAboveSectionAndAuthorMatch() {
+        NewsIndex index = new NewsIndex(100);
+        index.addAll(Arrays.asList(
+                new News("Election results", "Politics", 1L, "Jane Football", "u1"),
+                new News("Transfer news", "Football", 2L, "", "u2"),
+                new News("Football: cup final report", "Sport", 3L, "", "u3")));
+
+        List<News> results = index.search("football", 10);
+
+        assertEquals(3, results.size());
+        assertEquals("u3", results.get(0).getUrl());
+        assertEquals("u2", results.get(1).getUrl());
+        assertEquals("u1", results.get(2).getUrl());
+    }
+
+    @Test
+    public void prefix_matchesWordsAndExactMatchRanksFirst() {
+        NewsIndex index = new NewsIndex(100);
+        index.add(new News("Climate change summit", "Environment", 1L, "", "u1"));
+        index.add(new News("Climatic records broken", "Science", 2L, "", "u2"));
+        index.add(new News("Election results", "Politics", 3L, "", "u3"));
+
+        List<News> results = index.search("climat", 10);
+        assertEquals(2, results.size());
+        // Same score, so the newer News comes first.
+        assertEquals("u2", results.get(0).getUrl());
+
+        assertEquals("u1", index.search("Climate, summit", 10).get(0).getUrl());
+    }
+
+    @Test
+    public void search_returnsOnlyNewsWithEveryQueryWord() {
+        NewsIndex index = new NewsIndex(100);
+        index.add(new News("Brexit talks resume", "Politics", 1L, "", "u1"));
+        index.add(new News("Trade talks", "Business", 2L, "", "u2"));
+        index.add(new News("Brexit trade deal", "Politics", 3L, "", "u3"));
+        index.add(new News("Brexit vote", "Politics", 4L, "", "u4"));
+
+        List<News> results = index.search("brexit talks", 10);
+        assertEquals(1, results.size());
+        assertEquals("u1", results.get(0).getUrl());
+
+        // A repeated word is no second match and the limit keeps the best News.
+        results = index.search("brexit brexit", 2);
+        assertEquals(2, results.size());
+        assertEquals("u4", results.get(0).getUrl());
+        assertEquals("u3", results.get(1).getUrl());
+    }
+
+    @Test
+    public void searchAny_returnsNewsOfEveryKeyword() {
+        NewsIndex index = new NewsIndex(100);
+        index.add(new News("Election results", "Politics", 1L, "", "u1"));
+        index.add(new News("Cup final report", "Sport", 2L, "", "u2"));
+        index.add(new News("Sport and politics", "Opinion", 3L, "", "u3"));
+        index.add(new News("Gallery opening", "Culture", 4L, "", "u4"));
+
+        List<News> results = index.searchAny(Arrays.asList("politics", "sport"), 10);
+
+        assertEquals(3, results.size());
+        // The News which matches both keywords ranks first.
+        assertEquals("u3", results.get(0).getUrl());
+        assertEquals("u2", results.get(1).getUrl());
+        assertEquals("u1", results.get(2).getUrl());
+        assertTrue(index.searchAny(Arrays.asList("", "weather"), 10).isEmpty());
+    }
+
+    @Test
+    public void sameUrl_isIndexedOnce() {
+        NewsIndex index = new NewsIndex(100);
+        index.add(new News("Brexit talks", "Politics", 1L, "", "u1"));
+        index.add(new News("Brexit talks", "Politics", 1L, "", "u1"));
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.search("brexit", 10).size());
+    }
+
+    @Test
+    public void fullIndex_removesOlderHalf() {
+        NewsIndex index = new NewsIndex(4);
+        for (int i = 0; i < 5; i++) {
+            index.add(new News("Story " + i, "World news", i, "", "u" + i));
+        }
+
+        assertEquals(3, index.size());
+        assertEquals(3, index.search("world", 10).size());
+        assertEquals("u4", index.search("world", 10).get(0).getUrl());
+    }
+}
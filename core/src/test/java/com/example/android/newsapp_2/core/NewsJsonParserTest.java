@@ -0,0 +1,81 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests which check that the {@link NewsJsonParser} returns what the former
+ * JSONObject based parser returned for the same response.
+ */
+public class NewsJsonParserTest {
+
+    private static final String RESULT = "{\"webTitle\":\"Title\",\"sectionName\":\"World news\","
+            + "\"webPublicationDate\":\"2018-06-09T15:16:54Z\","
+            + "\"webUrl\":\"https://www.theguardian.com/%d\","
+            + "\"fields\":{\"byline\":\"Author\"}}";
+
+    @Test
+    public void validResponse_returnsEveryResult() throws IOException {
+        List<News> newsList = parse(response(result(1) + "," + result(2)));
+
+        assertEquals(2, newsList.size());
+        assertEquals("Title", newsList.get(0).getTitle());
+        assertEquals("Author", newsList.get(0).getAuthor());
+        assertEquals("https://www.theguardian.com/2", newsList.get(1).getUrl());
+    }
+
+    @Test
+    public void resultWithoutRequiredKey_returnsTheResultsBeforeIt() throws IOException {
+        List<News> newsList = parse(response(result(1)
+                + ",{\"webTitle\":\"No url\",\"sectionName\":\"World news\","
+                + "\"webPublicationDate\":\"2018-06-09T15:16:54Z\"}," + result(3)));
+
+        assertEquals(1, newsList.size());
+        assertEquals("https://www.theguardian.com/1", newsList.get(0).getUrl());
+    }
+
+    @Test
+    public void malformedJson_returnsEmptyList() throws IOException {
+        assertTrue(parse(response(result(1) + "," + result(2) + " " + result(3))).isEmpty());
+        assertTrue(parse(response(result(1) + ",{\"webTitle\":").substring(0, 150)).isEmpty());
+    }
+
+    @Test
+    public void missingResults_returnsEmptyList() throws IOException {
+        assertTrue(parse("{\"response\":{\"status\":\"ok\"}}").isEmpty());
+        assertTrue(parse("[]").isEmpty());
+    }
+
+    @Test
+    public void nonStringValues_areConvertedLikeGetString() throws IOException {
+        List<News> newsList = parse(response("{\"webTitle\":{\"main\":\"Title\"},"
+                + "\"sectionName\":[\"World\",1],\"webPublicationDate\":\"2018-06-09T15:16:54Z\","
+                + "\"webUrl\":true,\"fields\":{\"byline\":null}}"));
+
+        assertEquals(1, newsList.size());
+        assertEquals("{\"main\":\"Title\"}", newsList.get(0).getTitle());
+        assertEquals("[\"World\",1]", newsList.get(0).getSection());
+        assertEquals("true", newsList.get(0).getUrl());
+        assertEquals("null", newsList.get(0).getAuthor());
+    }
+
+    private static String result(int id) {
+        return String.format(RESULT, id);
+    }
+
+    private static String response(String results) {
+        return "{\"response\":{\"status\":\"ok\",\"results\":[" + results + "]}}";
+    }
+
+    private static List<News> parse(String json) throws IOException {
+        return NewsJsonParser.parse(
+                new ByteArrayInputStream(json.getBytes(Charset.forName("UTF-8"))));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the k-way merge of {@link NewsMerger}.
+ */
+public class NewsMergerTest {
+
+    @Test
+    public void newestFirst_mergesByTimeAndDropsDuplicateUrls() {
+        List<News> world = Arrays.asList(news("w3", 30), news("shared", 20), news("w1", 10));
+        List<News> sport = Arrays.asList(news("s4", 40), news("shared", 20), news("s2", 15));
+
+        List<News> merged = NewsMerger.merge(Arrays.asList(world, sport), true);
+
+        assertEquals(Arrays.asList("s4", "w3", "shared", "s2", "w1"), urlsOf(merged));
+    }
+
+    @Test
+    public void oldestFirst_putsNewsWithoutDateLast() {
+        List<News> first = Arrays.asList(news("a1", 10), news("a3", 30), news("a-", News.NO_DATE));
+        List<News> second = Arrays.asList(news("b2", 20));
+
+        List<News> merged = NewsMerger.merge(Arrays.asList(first, null, second), false);
+
+        assertEquals(Arrays.asList("a1", "b2", "a3", "a-"), urlsOf(merged));
+    }
+
+    @Test
+    public void noLists_mergeToEmptyList() {
+        assertTrue(NewsMerger.merge(new ArrayList<List<News>>(), true).isEmpty());
+    }
+
+    private static News news(String url, long timeInMillis) {
+        return new News("Title " + url, "World news", timeInMillis, "", url);
+    }
+
+    private static List<String> urlsOf(List<News> newsList) {
+        List<String> urls = new ArrayList<>();
+        for (News news : newsList) {
+            urls.add(news.getUrl());
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Local unit tests for the compact representation of {@link News}.
+ */
+public class NewsTest {
+
+    @Test
+    public void sameSection_sharesIdAndName() {
+        News first = new News("First", new String("World news"), 1L, "Jane Doe", "u1");
+        News second = new News("Second", new String("World news"), 2L, "", "u2");
+
+        assertEquals(first.getSectionId(), second.getSectionId());
+        assertSame(first.getSection(), second.getSection());
+    }
+
+    @Test
+    public void emptyAuthor_isSharedSentinel() {
+        News news = new News("Title", "Sport", 1L, new String(""), "u1");
+
+        assertSame(News.NO_AUTHOR, news.getAuthor());
+    }
+
+    @Test
+    public void writeList_readList_roundTrip() throws Exception {
+        List<News> newsList = Arrays.asList(
+                new News("First", "World news", 1528557414000L, "Jane Doe", "u1", "t1"),
+                new News("Second", "Sport", News.NO_DATE, "", "u2"),
+                new News("Third", "World news", 0L, "John Smith", "u3"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        News.writeList(new DataOutputStream(bytes), newsList);
+        List<News> readList = News.readList(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(newsList.size(), readList.size());
+        for (int i = 0; i < newsList.size(); i++) {
+            News expected = newsList.get(i);
+            News actual = readList.get(i);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getSectionId(), actual.getSectionId());
+            assertEquals(expected.getTimeInMillis(), actual.getTimeInMillis());
+            assertEquals(expected.getAuthor(), actual.getAuthor());
+            assertEquals(expected.getUrl(), actual.getUrl());
+            assertEquals(expected.getThumbnailUrl(), actual.getThumbnailUrl());
+            assertEquals(expected.getUrlHash(), actual.getUrlHash());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Local unit tests for the HTTP requests in {@link QueryUtils} against a mock server.
+ */
+public class QueryUtilsTest {
+
+    private static final String RESPONSE_JSON = "{\"response\":{\"status\":\"ok\",\"results\":["
+            + "{\"webTitle\":\"First title\",\"sectionName\":\"World news\","
+            + "\"webPublicationDate\":\"2018-06-09T15:16:54Z\","
+            + "\"webUrl\":\"https://www.theguardian.com/first\","
+            + "\"fields\":{\"byline\":\"Jane Doe\","
+            + "\"thumbnail\":\"https://media.guim.co.uk/first/500.jpg\"}},"
+            + "{\"webTitle\":\"Second title\",\"sectionName\":\"Sport\","
+            + "\"webPublicationDate\":\"2018-06-09T09:00:00Z\","
+            + "\"webUrl\":\"https://www.theguardian.com/second\"}]}}";
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        QueryUtils.setTransport(new UrlConnectionTransport());
+        NewsMetrics.setEnabled(false);
+        server.shutdown();
+    }
+
+    @Test
+    public void fakeTransport_isUsedForRequests() {
+        final List<URL> requestedUrls = new ArrayList<>();
+        QueryUtils.setTransport(new HttpTransport() {
+            @Override
+            public Response get(URL url, Map<String, String> headers) {
+                requestedUrls.add(url);
+                return new FakeResponse(RESPONSE_JSON);
+            }
+        });
+
+        List<News> newsList = QueryUtils.fetchNewsData("https://example.com/search?q=fake");
+
+        assertEquals(1, requestedUrls.size());
+        assertEquals("https://example.com/search?q=fake", requestedUrls.get(0).toString());
+        assertEquals(2, newsList.size());
+        assertEquals("Second title", newsList.get(1).getTitle());
+        assertEquals("https://media.guim.co.uk/first/500.jpg", newsList.get(0).getThumbnailUrl());
+        assertSame(News.NO_THUMBNAIL, newsList.get(1).getThumbnailUrl());
+    }
+
+    @Test
+    public void gzipResponse_isDecompressed() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Encoding", "gzip")
+                .setBody(gzip(RESPONSE_JSON)));
+
+        List<News> newsList = QueryUtils.fetchNewsData(server.url("/search?q=gzip").toString());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("gzip", request.getHeader("Accept-Encoding"));
+        assertEquals(2, newsList.size());
+        assertEquals("First title", newsList.get(0).getTitle());
+        assertEquals("Jane Doe", newsList.get(0).getAuthor());
+        assertEquals("", newsList.get(1).getAuthor());
+    }
+
+    @Test
+    public void enabledMetrics_recordRequestAndParse() throws Exception {
+        server.enqueue(new MockResponse().setBody(RESPONSE_JSON));
+        NewsMetrics.reset();
+        NewsMetrics.setEnabled(true);
+
+        QueryUtils.fetchNewsData(server.url("/search?q=metrics").toString());
+
+        assertEquals(1, NewsMetrics.Metric.FETCH_DNS.getHistogram().snapshot().getCount());
+        assertEquals(1, NewsMetrics.Metric.FETCH_CONNECT.getHistogram().snapshot().getCount());
+        assertEquals(RESPONSE_JSON.length(),
+                NewsMetrics.Metric.FETCH_BYTES.getHistogram().snapshot().getMax());
+        assertEquals(2, NewsMetrics.Metric.PARSE_ITEMS.getHistogram().snapshot().getMax());
+        assertEquals(1, NewsMetrics.Metric.PARSE.getHistogram().snapshot().getCount());
+    }
+
+    @Test
+    public void notModifiedResponse_reusesParsedNews() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Last-Modified", "Sat, 09 Jun 2018 15:16:54 GMT")
+                .setBody(RESPONSE_JSON));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        String url = server.url("/search?q=conditional").toString();
+
+        List<News> first = QueryUtils.fetchNewsData(url);
+        List<News> second = QueryUtils.fetchNewsData(url);
+
+        RecordedRequest firstRequest = server.takeRequest();
+        RecordedRequest secondRequest = server.takeRequest();
+        assertNull(firstRequest.getHeader("If-None-Match"));
+        assertEquals("\"v1\"", secondRequest.getHeader("If-None-Match"));
+        assertEquals("Sat, 09 Jun 2018 15:16:54 GMT",
+                secondRequest.getHeader("If-Modified-Since"));
+        assertEquals(2, first.size());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void notModifiedResponse_withoutValidators_returnsNull() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        List<News> newsList = QueryUtils.fetchNewsData(
+                server.url("/search?q=unknown").toString());
+
+        assertNull(newsList);
+    }
+
+    @Test
+    public void brokenResponse_failsAndKeepsNoValidators() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setBody(RESPONSE_JSON.substring(0, RESPONSE_JSON.length() / 2)));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        String url = server.url("/search?q=broken").toString();
+
+        assertFetchFails(url, FetchException.Kind.NETWORK);
+        assertNull(QueryUtils.fetchNewsData(url));
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void resultWithoutKey_returnsNewsBeforeItAndKeepsNoValidators() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setBody(RESPONSE_JSON.replace("\"webUrl\":\"https://www.theguardian.com/second\"",
+                        "\"id\":\"second\"")));
+        server.enqueue(new MockResponse().setHeader("ETag", "\"v2\"").setBody(RESPONSE_JSON));
+        String url = server.url("/search?q=incomplete").toString();
+
+        List<News> partial = QueryUtils.fetchNews(url, new FetchCancellation());
+        assertEquals(1, partial.size());
+        assertEquals("First title", partial.get(0).getTitle());
+        assertEquals(2, QueryUtils.fetchNews(url, new FetchCancellation()).size());
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    private static void assertFetchFails(String url, FetchException.Kind kind) {
+        try {
+            QueryUtils.fetchNews(url, new FetchCancellation());
+            fail("The incomplete response was accepted");
+        } catch (FetchException e) {
+            assertEquals(kind, e.getKind());
+        }
+    }
+
+    /**
+     * Successful uncompressed response without validators.
+     */
+    private static final class FakeResponse implements HttpTransport.Response {
+
+        private final String mBody;
+
+        FakeResponse(String body) {
+            mBody = body;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return 200;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(mBody.getBytes(Charset.forName("UTF-8")));
+        }
+
+        @Override
+        public void abort() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static Buffer gzip(String body) throws IOException {
+        Buffer result = new Buffer();
+        BufferedSink sink = Okio.buffer(new GzipSink(result));
+        sink.writeUtf8(body);
+        sink.close();
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Local unit tests for the rate limiter and the daily budget of {@link QuotaSource}.
+ */
+public class QuotaSourceTest {
+
+    private static final String URL = "https://content.guardianapis.com/search?q=quota";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private final NewsSource countingSource = new NewsSource() {
+        @Override
+        public List<News> fetch(String url, FetchCancellation cancellation) {
+            fetches.incrementAndGet();
+            return Collections.emptyList();
+        }
+    };
+
+    @Test
+    public void burstAboveRate_isRejectedWithoutWaiting() throws Exception {
+        QuotaSource source = new QuotaSource(countingSource, new RateLimiter(1, 2),
+                new DailyBudget(new File(folder.getRoot(), "budget"), 100), 0);
+
+        source.fetch(URL, new FetchCancellation());
+        source.fetch(URL, new FetchCancellation());
+        FetchException failure = assertQuotaExceeded(source);
+
+        assertTrue(failure.getRetryAfterMillis() > 0);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void requestAboveRate_isDeferredWithinMaxWait() throws Exception {
+        QuotaSource source = new QuotaSource(countingSource, new RateLimiter(20, 1),
+                new DailyBudget(new File(folder.getRoot(), "budget"), 100), 1000);
+
+        source.fetch(URL, new FetchCancellation());
+        long start = System.currentTimeMillis();
+        assertNotNull(source.fetch(URL, new FetchCancellation()));
+
+        assertTrue(System.currentTimeMillis() - start >= 10);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void usedBudget_survivesRestart() throws Exception {
+        File file = new File(folder.getRoot(), "budget");
+        QuotaSource source = new QuotaSource(countingSource, new RateLimiter(100, 100),
+                new DailyBudget(file, 2), 0);
+        source.fetch(URL, new FetchCancellation());
+        source.fetch(URL, new FetchCancellation());
+
+        // A new process reads the saved count.
+        QuotaSource restarted = new QuotaSource(countingSource, new RateLimiter(100, 100),
+                new DailyBudget(file, 2), 0);
+
+        assertEquals(0, restarted.getRemainingToday());
+        assertQuotaExceeded(restarted);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void usedBudget_isSavedInBatchesAndOnFlush() throws Exception {
+        File file = new File(folder.getRoot(), "budget");
+        DailyBudget budget = new DailyBudget(file, 100);
+        budget.load();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(budget.tryConsume());
+        }
+        assertFalse(file.exists());
+
+        budget.flush();
+
+        assertEquals(97, new DailyBudget(file, 100).getRemaining());
+    }
+
+    private static FetchException assertQuotaExceeded(QuotaSource source) {
+        try {
+            source.fetch(URL, new FetchCancellation());
+        } catch (FetchException e) {
+            assertEquals(FetchException.Kind.QUOTA_EXCEEDED, e.getKind());
+            return e;
+        }
+        fail("Expected the quota to be exceeded");
+        return null;
+    }
+}
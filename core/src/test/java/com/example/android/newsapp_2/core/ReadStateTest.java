@@ -0,0 +1,143 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the {@link LongHashSet} and the {@link ReadState} which keeps its
+ * hashes.
+ */
+public class ReadStateTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long NOW = 1528557414000L;
+    private static final long FIRST = UrlHash.hash64("https://www.theguardian.com/first");
+    private static final long SECOND = UrlHash.hash64("https://www.theguardian.com/second");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void longHashSet_keepsEveryValueWhileGrowing() {
+        LongHashSet set = new LongHashSet();
+        for (long value = -1000; value < 1000; value++) {
+            assertTrue(set.add(value * 0x100000000L));
+        }
+
+        assertFalse(set.add(0));
+        assertEquals(2000, set.size());
+        assertEquals(2000, set.toArray().length);
+        for (long value = -1000; value < 1000; value++) {
+            assertTrue(set.contains(value * 0x100000000L));
+        }
+        assertFalse(set.contains(1));
+    }
+
+    @Test
+    public void readNews_isSeenAndOtherNewsIsNot() {
+        ReadState state = new ReadState(new File(folder.getRoot(), "read"), 30 * DAY, 3, NOW);
+
+        state.markRead(FIRST, NOW);
+
+        assertTrue(state.isRead(FIRST, NOW));
+        assertTrue(state.isSeen(FIRST, NOW));
+        assertFalse(state.markSeen(FIRST, NOW));
+        assertFalse(state.isRead(SECOND, NOW));
+        assertTrue(state.markSeen(SECOND, NOW));
+        assertFalse(state.markSeen(SECOND, NOW));
+        assertFalse(state.isRead(SECOND, NOW));
+    }
+
+    @Test
+    public void markedNews_ageOutAfterRetention() {
+        ReadState state = new ReadState(new File(folder.getRoot(), "read"), 30 * DAY, 3, NOW);
+        state.markRead(FIRST, NOW);
+
+        state.markRead(SECOND, NOW + 25 * DAY);
+
+        assertTrue(state.isRead(FIRST, NOW + 25 * DAY));
+        assertFalse(state.isRead(FIRST, NOW + 31 * DAY));
+        assertTrue(state.isRead(SECOND, NOW + 31 * DAY));
+    }
+
+    @Test
+    public void savedState_isLoadedAgain() {
+        File file = new File(folder.getRoot(), "read");
+        ReadState state = new ReadState(file, 30 * DAY, 3);
+        state.markRead(FIRST);
+        state.markSeen(SECOND);
+        state.save();
+
+        ReadState loaded = new ReadState(file, 30 * DAY, 3);
+        loaded.load();
+
+        assertTrue(loaded.isRead(FIRST));
+        assertTrue(loaded.isSeen(SECOND));
+        assertFalse(loaded.isRead(SECOND));
+        assertEquals(4 + 4 + 8 + 4 + 8 + 4 + 8, file.length());
+    }
+
+    @Test
+    public void corruptFile_isIgnored() throws IOException {
+        File file = new File(folder.getRoot(), "read");
+        writeInts(file, 1, -1);
+        ReadState negative = new ReadState(file, 30 * DAY, 3, NOW);
+        negative.load();
+
+        writeInts(file, 1, 1, 0, 0, Integer.MAX_VALUE);
+        ReadState huge = new ReadState(file, 30 * DAY, 3, NOW);
+        huge.markRead(FIRST, NOW);
+        huge.load();
+
+        assertFalse(negative.isSeen(FIRST, NOW));
+        assertTrue(huge.isRead(FIRST, NOW));
+    }
+
+    @Test
+    public void moreSavedGenerationsThanKept_dropsTheOldest() {
+        ReadState state = new ReadState(new File(folder.getRoot(), "read"), 30 * DAY, 3, NOW);
+        ReadState.Generation[] saved = new ReadState.Generation[5];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = new ReadState.Generation(NOW - i * DAY);
+            saved[i].read.add(i + 1);
+        }
+
+        state.merge(saved, NOW);
+
+        assertTrue(state.isRead(1, NOW));
+        assertTrue(state.isRead(3, NOW));
+        assertFalse(state.isRead(5, NOW));
+    }
+
+    @Test
+    public void savedGenerationsFromTheFuture_keepTheNewlyMarkedNews() {
+        ReadState state = new ReadState(new File(folder.getRoot(), "read"), 30 * DAY, 3, NOW);
+        state.markRead(FIRST, NOW);
+        ReadState.Generation[] saved = new ReadState.Generation[3];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = new ReadState.Generation(NOW + (30 - i) * DAY);
+        }
+
+        state.merge(saved, NOW);
+
+        assertTrue(state.isRead(FIRST, NOW));
+    }
+
+    private static void writeInts(File file, int... values) throws IOException {
+        DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
+        for (int value : values) {
+            output.writeInt(value);
+        }
+        output.close();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Local unit tests for the retries and the circuit breaker of {@link ResilientSource} against
+ * a mock server which injects faults.
+ */
+public class ResilientSourceTest {
+
+    private static final String RESPONSE_JSON = "{\"response\":{\"status\":\"ok\",\"results\":["
+            + "{\"webTitle\":\"First title\",\"sectionName\":\"World news\","
+            + "\"webPublicationDate\":\"2018-06-09T15:16:54Z\","
+            + "\"webUrl\":\"https://www.theguardian.com/first\"}]}}";
+
+    private static final long BASE_DELAY_MILLIS = 10;
+    private static final long MAX_DELAY_MILLIS = 100;
+    private static final long OPEN_MILLIS = 200;
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void temporaryFailures_areRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody(RESPONSE_JSON));
+        ResilientSource source = newSource(3, new CircuitBreaker(5, OPEN_MILLIS));
+
+        List<News> newsList = source.fetch(url("/search?q=retry"), new FetchCancellation());
+
+        assertEquals(1, newsList.size());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void clientError_isNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        ResilientSource source = newSource(3, new CircuitBreaker(5, OPEN_MILLIS));
+
+        assertFailure(source, "/search?q=missing", FetchException.Kind.HTTP_ERROR);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void longRetryAfter_failsAndPausesRequests() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "120"));
+        ResilientSource source = newSource(3, new CircuitBreaker(5, OPEN_MILLIS));
+
+        FetchException failure = assertFailure(source, "/search?q=limited",
+                FetchException.Kind.RATE_LIMITED);
+        assertEquals(120000, failure.getRetryAfterMillis());
+        // The server asked to wait, so the next request is not sent at all.
+        assertFailure(source, "/search?q=limited", FetchException.Kind.CIRCUIT_OPEN);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void openCircuit_allowsOneTrialAfterTheOpenTime() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody(RESPONSE_JSON));
+        ResilientSource source = newSource(1, new CircuitBreaker(2, OPEN_MILLIS));
+
+        assertFailure(source, "/search?q=down", FetchException.Kind.SERVER_ERROR);
+        assertFailure(source, "/search?q=down", FetchException.Kind.SERVER_ERROR);
+        assertFailure(source, "/search?q=down", FetchException.Kind.CIRCUIT_OPEN);
+        assertEquals(2, server.getRequestCount());
+
+        Thread.sleep(OPEN_MILLIS + 50);
+        List<News> newsList = source.fetch(url("/search?q=down"), new FetchCancellation());
+        assertEquals(1, newsList.size());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void runtimeExceptionOfTrial_closesTheTrial() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody(RESPONSE_JSON));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, OPEN_MILLIS);
+        assertFailure(newSource(1, circuitBreaker), "/search?q=bug",
+                FetchException.Kind.SERVER_ERROR);
+        Thread.sleep(OPEN_MILLIS + 50);
+        ResilientSource failingSource = new ResilientSource(new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                throw new IllegalStateException("Bug in the source");
+            }
+        }, circuitBreaker, 1, BASE_DELAY_MILLIS, MAX_DELAY_MILLIS);
+        try {
+            failingSource.fetch(url("/search?q=bug"), new FetchCancellation());
+            fail("The exception was swallowed");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        Thread.sleep(OPEN_MILLIS + 50);
+        List<News> newsList = newSource(1, circuitBreaker).fetch(url("/search?q=bug"),
+                new FetchCancellation());
+        assertEquals(1, newsList.size());
+    }
+
+    @Test
+    public void retryAfter_isClampedAndInvalidHeadersAreIgnored() {
+        long day = 24 * 60 * 60 * 1000L;
+
+        assertEquals(120000, QueryUtils.parseRetryAfter(" 120 "));
+        assertEquals(day, QueryUtils.parseRetryAfter("9223372036854775"));
+        assertEquals(day, QueryUtils.parseRetryAfter("99999999999999999999"));
+        assertEquals(0, QueryUtils.parseRetryAfter("-5"));
+        assertEquals(0, QueryUtils.parseRetryAfter("Sat, 09 Jun 2018 15:16:54 GMT"));
+        assertEquals(day, QueryUtils.parseRetryAfter("Fri, 31 Dec 9999 23:59:59 GMT"));
+        assertEquals(FetchException.NO_RETRY_AFTER, QueryUtils.parseRetryAfter("soon"));
+    }
+
+    private ResilientSource newSource(int maxAttempts, CircuitBreaker circuitBreaker) {
+        return new ResilientSource(NewsSource.GUARDIAN, circuitBreaker, maxAttempts,
+                BASE_DELAY_MILLIS, MAX_DELAY_MILLIS);
+    }
+
+    private String url(String path) {
+        return server.url(path).toString();
+    }
+
+    private FetchException assertFailure(ResilientSource source, String path,
+                                         FetchException.Kind kind) {
+        try {
+            source.fetch(url(path), new FetchCancellation());
+        } catch (FetchException e) {
+            assertEquals(kind, e.getKind());
+            return e;
+        }
+        fail("Expected a " + kind + " failure");
+        return null;
+    }
+}
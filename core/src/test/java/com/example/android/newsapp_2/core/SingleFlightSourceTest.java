@@ -0,0 +1,150 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Local unit tests for the request coalescing of {@link SingleFlightSource}.
+ */
+public class SingleFlightSourceTest {
+
+    private static final String RESPONSE_JSON = "{\"response\":{\"status\":\"ok\",\"results\":["
+            + "{\"webTitle\":\"First title\",\"sectionName\":\"World news\","
+            + "\"webPublicationDate\":\"2018-06-09T15:16:54Z\","
+            + "\"webUrl\":\"https://www.theguardian.com/first\"}]}}";
+
+    private static final int CALLERS = 8;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private MockWebServer server;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void parallelCallers_shareOneRequest() throws Exception {
+        // The server holds the response back until all callers joined the running fetch.
+        final CountDownLatch allJoined = new CountDownLatch(1);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                allJoined.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return new MockResponse().setBody(RESPONSE_JSON);
+            }
+        });
+        final SingleFlightSource source = new SingleFlightSource(NewsSource.GUARDIAN);
+        final String url = server.url("/search?q=parallel&page=1").toString();
+
+        List<Future<List<News>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(new Callable<List<News>>() {
+                @Override
+                public List<News> call() throws Exception {
+                    return source.fetch(url, new FetchCancellation());
+                }
+            }));
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (source.getCallerCount(url) < CALLERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(CALLERS, source.getCallerCount(url));
+        allJoined.countDown();
+
+        List<News> first = results.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(1, first.size());
+        for (Future<List<News>> result : results) {
+            assertSame(first, result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void canceledWaiter_stopsWaitingWhileLeaderRuns() throws Exception {
+        final CountDownLatch leaderRelease = new CountDownLatch(1);
+        final SingleFlightSource source = new SingleFlightSource(new NewsSource() {
+            @Override
+            public List<News> fetch(String url, FetchCancellation cancellation) {
+                try {
+                    leaderRelease.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ArrayList<>();
+            }
+        });
+        final String url = "https://content.guardianapis.com/search?q=cancel";
+        Future<List<News>> leader = executor.submit(new Callable<List<News>>() {
+            @Override
+            public List<News> call() throws Exception {
+                return source.fetch(url, new FetchCancellation());
+            }
+        });
+        // The waiter may only start once the leader runs, otherwise it would lead itself.
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (source.getCallerCount(url) < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        final FetchCancellation waiterCancellation = new FetchCancellation();
+        Future<List<News>> waiter = executor.submit(new Callable<List<News>>() {
+            @Override
+            public List<News> call() throws Exception {
+                return source.fetch(url, waiterCancellation);
+            }
+        });
+        while (source.getCallerCount(url) < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        waiterCancellation.cancel();
+
+        assertNull(waiter.get(1, TimeUnit.SECONDS));
+        assertFalse(leader.isDone());
+        leaderRelease.countDown();
+        assertEquals(0, leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    public void normalize_ignoresParameterOrderHostCaseAndDefaultPort() {
+        String url = "https://content.guardianapis.com/search?q=a&page=2";
+        String sameQuery = "HTTPS://Content.GuardianAPIs.com:443/search?page=2&q=a";
+        String otherQuery = "https://content.guardianapis.com/search?q=b&page=2";
+
+        assertEquals(SingleFlightSource.normalize(url), SingleFlightSource.normalize(sameQuery));
+        assertNotEquals(SingleFlightSource.normalize(url),
+                SingleFlightSource.normalize(otherQuery));
+    }
+}
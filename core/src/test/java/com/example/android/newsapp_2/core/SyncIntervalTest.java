@@ -0,0 +1,48 @@
+package com.example.android.newsapp_2.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Local unit tests for the adaptive interval of the background sync, {@link SyncInterval}.
+ */
+public class SyncIntervalTest {
+
+    private static final long MIN_MILLIS = 15;
+    private static final long MAX_MILLIS = 240;
+
+    @Test
+    public void changedFeed_shortensIntervalDownToMinimum() {
+        SyncInterval interval = new SyncInterval(MIN_MILLIS, MAX_MILLIS);
+
+        assertEquals(60, interval.next(120, true));
+        assertEquals(MIN_MILLIS, interval.next(20, true));
+    }
+
+    @Test
+    public void unchangedFeed_lengthensIntervalUpToMaximum() {
+        SyncInterval interval = new SyncInterval(MIN_MILLIS, MAX_MILLIS);
+
+        assertEquals(60, interval.next(30, false));
+        assertEquals(MAX_MILLIS, interval.next(200, false));
+    }
+
+    @Test
+    public void fingerprint_changesWithNewsAndOrder() {
+        News first = new News("First", "World news", 20, "", "https://example.com/first");
+        News second = new News("Second", "Sport", 10, "", "https://example.com/second");
+
+        long fingerprint = SyncInterval.fingerprint(Arrays.asList(first, second));
+
+        assertEquals(fingerprint, SyncInterval.fingerprint(Arrays.asList(first, second)));
+        assertNotEquals(fingerprint, SyncInterval.fingerprint(Arrays.asList(second, first)));
+        assertNotEquals(fingerprint, SyncInterval.fingerprint(Collections.singletonList(first)));
+        assertEquals(SyncInterval.NO_FINGERPRINT,
+                SyncInterval.fingerprint(Collections.<News>emptyList()));
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.android.newsapp_2.testing;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Generates responses of the Guardian "/search" endpoint for a result set of a fixed size. The
+ * results are the same for every request, so the pages of a query fit together: result i is
+ * published one interval before result i - 1 and has its own url, title and section.
+ * <p>
+ * The fields "byline", "thumbnail" and "body" are only part of a result if they are asked for
+ * with "show-fields", like the real API does.
+ */
+
+public final class GuardianFixture {
+
+    //Values of "order-by".
+    public static final String ORDER_NEWEST = "newest";
+    public static final String ORDER_OLDEST = "oldest";
+
+    private static final String WEB_URL = "https://www.theguardian.com/";
+    private static final String API_URL = "https://content.guardianapis.com/";
+    private static final String THUMBNAIL_URL = "https://media.guim.co.uk/thumbnails/";
+    private static final String FIELD_BYLINE = "byline";
+    private static final String FIELD_THUMBNAIL = "thumbnail";
+    private static final String FIELD_BODY = "body";
+    private static final String ISO_8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    //2018-06-09T15:16:54Z, the date of the recorded responses of the benchmarks.
+    private static final long DEFAULT_NEWEST_MILLIS = 1528557414000L;
+    private static final long DEFAULT_INTERVAL_MILLIS = 15 * 60 * 1000L;
+    private static final String[] DEFAULT_SECTIONS = {
+            "World news", "Sport", "Football", "Business", "Politics", "Technology"};
+    private static final String PARAGRAPH = "<p>The paragraph of a generated article. It is "
+            + "long enough to look like the text of a real one.</p>";
+
+    private final int mTotalResults;
+    private long mNewestMillis = DEFAULT_NEWEST_MILLIS;
+    private long mIntervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private String[] mSections = DEFAULT_SECTIONS;
+    private int mBodyParagraphs = 10;
+
+    public GuardianFixture(int totalResults) {
+        mTotalResults = totalResults;
+    }
+
+    public void setNewestMillis(long newestMillis) {
+        mNewestMillis = newestMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        mIntervalMillis = intervalMillis;
+    }
+
+    public void setSections(String... sections) {
+        mSections = sections.clone();
+    }
+
+    public void setBodyParagraphs(int bodyParagraphs) {
+        mBodyParagraphs = bodyParagraphs;
+    }
+
+    public int getTotalResults() {
+        return mTotalResults;
+    }
+
+    //Return the number of pages of the given size.
+    public int getPages(int pageSize) {
+        return (mTotalResults + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Return the JSON of one page. The page has to be between 1 and the number of pages, an
+     * empty result set has one empty page.
+     */
+    public String response(String query, String orderBy, int page, int pageSize,
+                           String showFields) {
+        int first = (page - 1) * pageSize;
+        int end = Math.min(first + pageSize, mTotalResults);
+        boolean oldestFirst = ORDER_OLDEST.equals(orderBy);
+        String fields = showFields == null ? "" : showFields;
+
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        try {
+            writer.beginObject().name("response").beginObject();
+            writer.name("status").value("ok");
+            writer.name("userTier").value("developer");
+            writer.name("total").value(mTotalResults);
+            writer.name("startIndex").value(first + 1);
+            writer.name("pageSize").value(pageSize);
+            writer.name("currentPage").value(page);
+            writer.name("pages").value(Math.max(1, getPages(pageSize)));
+            writer.name("orderBy").value(oldestFirst ? ORDER_OLDEST : ORDER_NEWEST);
+            writer.name("results").beginArray();
+            for (int position = first; position < end; position++) {
+                int index = oldestFirst ? mTotalResults - 1 - position : position;
+                writeResult(writer, query, index, fields);
+            }
+            writer.endArray();
+            writer.endObject().endObject();
+            writer.close();
+        } catch (IOException e) {
+            // A StringWriter doesn't throw.
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Return the JSON of an error response, e.g. for a page beyond the last one.
+     */
+    public static String errorResponse(String message) {
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        try {
+            writer.beginObject().name("response").beginObject();
+            writer.name("status").value("error");
+            writer.name("message").value(message);
+            writer.endObject().endObject();
+            writer.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    private void writeResult(JsonWriter writer, String query, int index, String fields)
+            throws IOException {
+        String section = mSections[index % mSections.length];
+        String sectionId = section.toLowerCase(Locale.UK).replace(' ', '-');
+        String id = sectionId + "/" + slug(query) + "-" + index;
+
+        writer.beginObject();
+        writer.name("id").value(id);
+        writer.name("type").value("article");
+        writer.name("sectionId").value(sectionId);
+        writer.name("sectionName").value(section);
+        writer.name("webPublicationDate")
+                .value(formatDate(mNewestMillis - index * mIntervalMillis));
+        writer.name("webTitle").value("News " + index + " about " + query);
+        writer.name("webUrl").value(WEB_URL + id);
+        writer.name("apiUrl").value(API_URL + id);
+        if (fields.contains(FIELD_BYLINE) || fields.contains(FIELD_THUMBNAIL)
+                || fields.contains(FIELD_BODY)) {
+            writer.name("fields").beginObject();
+            if (fields.contains(FIELD_BYLINE)) {
+                writer.name(FIELD_BYLINE).value("Reporter " + (index % 7));
+            }
+            // Every fifth result has no thumbnail, like the live blogs of the real feed.
+            if (fields.contains(FIELD_THUMBNAIL) && index % 5 != 4) {
+                writer.name(FIELD_THUMBNAIL).value(THUMBNAIL_URL + index + ".jpg");
+            }
+            if (fields.contains(FIELD_BODY)) {
+                writer.name(FIELD_BODY).value(body());
+            }
+            writer.endObject();
+        }
+        writer.name("isHosted").value(false);
+        writer.endObject();
+    }
+
+    private String body() {
+        StringBuilder body = new StringBuilder(PARAGRAPH.length() * mBodyParagraphs);
+        for (int i = 0; i < mBodyParagraphs; i++) {
+            body.append(PARAGRAPH);
+        }
+        return body.toString();
+    }
+
+    private static String slug(String query) {
+        return query == null || query.isEmpty() ? "news"
+                : query.toLowerCase(Locale.UK).replaceAll("[^a-z0-9]", "-");
+    }
+
+    private static String formatDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat(ISO_8601_PATTERN, Locale.UK);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.android.newsapp_2.testing;
+
+import com.example.android.newsapp_2.core.FetchCancellation;
+import com.example.android.newsapp_2.core.FetchException;
+import com.example.android.newsapp_2.core.Histogram;
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Drives many fetch and parse cycles of {@link QueryUtils#fetchNews} at the same time, e.g.
+ * against a {@link MockGuardianServer}, and reports the throughput, the latency percentiles,
+ * the failures by kind and how much the heap grew. Every cycle fetches the next of the URLs.
+ * <p>
+ * Run it with ./gradlew :test-support:loadTest, see {@link #main} for the options.
+ */
+
+public final class LoadHarness {
+
+    //How often the used heap is sampled for its peak.
+    private static final long HEAP_SAMPLE_MILLIS = 20;
+
+    private final List<String> mUrls;
+    private final int mThreads;
+
+    public LoadHarness(List<String> urls, int threads) {
+        mUrls = new ArrayList<>(urls);
+        mThreads = threads;
+    }
+
+    /**
+     * Run the cycles on the threads and wait until all of them are done.
+     */
+    public LoadReport run(final int cycles) throws InterruptedException {
+        final Histogram latencies = new Histogram();
+        final AtomicLongArray failures = new AtomicLongArray(FetchException.Kind.values().length);
+        final AtomicLong newsCount = new AtomicLong();
+        final AtomicInteger nextCycle = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(mThreads);
+
+        long heapBefore = usedHeapAfterGc();
+        HeapSampler sampler = new HeapSampler();
+        sampler.start();
+        ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+        long start = System.nanoTime();
+        // Every thread takes the next cycle until all are taken, so no queue of tasks is kept.
+        for (int thread = 0; thread < mThreads; thread++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    int cycle;
+                    while ((cycle = nextCycle.getAndIncrement()) < cycles) {
+                        String url = mUrls.get(cycle % mUrls.size());
+                        long cycleStart = System.nanoTime();
+                        try {
+                            List<News> newsList = QueryUtils.fetchNews(url,
+                                    new FetchCancellation());
+                            newsCount.addAndGet(newsList == null ? 0 : newsList.size());
+                        } catch (FetchException e) {
+                            failures.incrementAndGet(e.getKind().ordinal());
+                        }
+                        latencies.record(System.nanoTime() - cycleStart);
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        sampler.interrupt();
+        sampler.join();
+
+        long[] failuresByKind = new long[failures.length()];
+        for (int i = 0; i < failuresByKind.length; i++) {
+            failuresByKind[i] = failures.get(i);
+        }
+        return new LoadReport(cycles, mThreads, elapsedNanos, latencies.snapshot(),
+                failuresByKind, newsCount.get(), heapBefore, sampler.getPeak(),
+                usedHeapAfterGc());
+    }
+
+    /**
+     * Start a {@link MockGuardianServer} and run the harness against it. Options:
+     * --cycles, --threads, --queries, --pages, --page-size, --latency (ms), --error-rate,
+     * --error-code, --disconnect-rate, --trickle-bytes and --trickle-period (ms).
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        int pageSize = options.getInt("--page-size", 20);
+        int pages = options.getInt("--pages", 5);
+        GuardianFixture fixture = new GuardianFixture(pages * pageSize);
+        int threads = options.getInt("--threads", 64);
+
+        // The server has a thread per client thread, so its queue doesn't skew the latency.
+        MockGuardianServer server = new MockGuardianServer(fixture, threads);
+        try {
+            server.setLatency(options.getInt("--latency", 0), TimeUnit.MILLISECONDS);
+            server.setErrors(options.getDouble("--error-rate", 0),
+                    options.getInt("--error-code", 503), 0);
+            server.setDisconnectRate(options.getDouble("--disconnect-rate", 0));
+            server.setTrickle(options.getInt("--trickle-bytes", 0),
+                    options.getInt("--trickle-period", 0), TimeUnit.MILLISECONDS);
+            server.start();
+
+            List<String> urls = new ArrayList<>();
+            int queries = options.getInt("--queries", 10);
+            for (int query = 0; query < queries; query++) {
+                for (int page = 1; page <= pages; page++) {
+                    urls.add(server.url("keyword" + query, page, pageSize));
+                }
+            }
+
+            LoadHarness harness = new LoadHarness(urls, threads);
+            // A short first run warms up the JIT and the connection pool.
+            harness.run(Math.min(1000, options.getInt("--cycles", 5000)));
+            System.out.println(harness.run(options.getInt("--cycles", 5000)));
+            System.out.println("Requests served: " + server.getRequestCount());
+        } finally {
+            server.close();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Samples the used heap while the cycles run and keeps the peak.
+     */
+    private static final class HeapSampler extends Thread {
+        private volatile long mPeak;
+
+        HeapSampler() {
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Runtime runtime = Runtime.getRuntime();
+            while (!isInterrupted()) {
+                mPeak = Math.max(mPeak, runtime.totalMemory() - runtime.freeMemory());
+                try {
+                    Thread.sleep(HEAP_SAMPLE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long getPeak() {
+            return mPeak;
+        }
+    }
+
+    /**
+     * The "--name value" pairs of the command line.
+     */
+    private static final class Options {
+        private final String[] mArgs;
+
+        Options(String[] args) {
+            mArgs = args;
+        }
+
+        int getInt(String name, int defaultValue) {
+            String value = get(name);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        double getDouble(String name, double defaultValue) {
+            String value = get(name);
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+
+        private String get(String name) {
+            for (int i = 0; i < mArgs.length - 1; i++) {
+                if (name.equals(mArgs[i])) {
+                    return mArgs[i + 1];
+                }
+            }
+            return null;
+        }
+    }
+}
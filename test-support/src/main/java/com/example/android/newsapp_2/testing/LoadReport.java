@@ -0,0 +1,108 @@
+package com.example.android.newsapp_2.testing;
+
+import com.example.android.newsapp_2.core.FetchException;
+import com.example.android.newsapp_2.core.Histogram;
+
+import java.util.Locale;
+
+/**
+ * The result of a run of the {@link LoadHarness}. The latencies are in nanoseconds and the heap
+ * sizes in bytes; the heap before and after was measured after a garbage collection.
+ */
+
+public final class LoadReport {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long BYTES_PER_KILOBYTE = 1024;
+
+    private final int mCycles;
+    private final int mThreads;
+    private final long mElapsedNanos;
+    private final Histogram.Snapshot mLatencies;
+    private final long[] mFailuresByKind;
+    private final long mNewsCount;
+    private final long mHeapBefore;
+    private final long mHeapPeak;
+    private final long mHeapAfter;
+
+    LoadReport(int cycles, int threads, long elapsedNanos, Histogram.Snapshot latencies,
+               long[] failuresByKind, long newsCount, long heapBefore, long heapPeak,
+               long heapAfter) {
+        mCycles = cycles;
+        mThreads = threads;
+        mElapsedNanos = elapsedNanos;
+        mLatencies = latencies;
+        mFailuresByKind = failuresByKind;
+        mNewsCount = newsCount;
+        mHeapBefore = heapBefore;
+        mHeapPeak = heapPeak;
+        mHeapAfter = heapAfter;
+    }
+
+    public int getCycles() {
+        return mCycles;
+    }
+
+    //Return the completed cycles per second.
+    public double getThroughput() {
+        return mElapsedNanos == 0 ? 0 : mCycles * NANOS_PER_SECOND / mElapsedNanos;
+    }
+
+    public Histogram.Snapshot getLatencies() {
+        return mLatencies;
+    }
+
+    public long getFailures(FetchException.Kind kind) {
+        return mFailuresByKind[kind.ordinal()];
+    }
+
+    //Return the number of cycles which failed.
+    public long getFailures() {
+        long failures = 0;
+        for (long count : mFailuresByKind) {
+            failures += count;
+        }
+        return failures;
+    }
+
+    public long getNewsCount() {
+        return mNewsCount;
+    }
+
+    //Return the growth of the heap which is still used after the run.
+    public long getHeapGrowth() {
+        return mHeapAfter - mHeapBefore;
+    }
+
+    public long getHeapPeak() {
+        return mHeapPeak;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "%d cycles on %d threads in %.1f s: %.1f/s%n",
+                mCycles, mThreads, mElapsedNanos / NANOS_PER_SECOND, getThroughput()));
+        report.append(String.format(Locale.US,
+                "latency ms: mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                mLatencies.getMean() / NANOS_PER_MILLI,
+                mLatencies.getPercentile(0.5) / NANOS_PER_MILLI,
+                mLatencies.getPercentile(0.9) / NANOS_PER_MILLI,
+                mLatencies.getPercentile(0.99) / NANOS_PER_MILLI,
+                mLatencies.getPercentile(0.999) / NANOS_PER_MILLI,
+                mLatencies.getMax() / NANOS_PER_MILLI));
+        report.append(String.format(Locale.US, "news parsed: %d, failures: %d",
+                mNewsCount, getFailures()));
+        for (FetchException.Kind kind : FetchException.Kind.values()) {
+            if (getFailures(kind) > 0) {
+                report.append(' ').append(kind).append('=').append(getFailures(kind));
+            }
+        }
+        report.append(String.format(Locale.US,
+                "%nheap KiB: before %d, peak %d, after %d, growth %d",
+                mHeapBefore / BYTES_PER_KILOBYTE, mHeapPeak / BYTES_PER_KILOBYTE,
+                mHeapAfter / BYTES_PER_KILOBYTE, getHeapGrowth() / BYTES_PER_KILOBYTE));
+        return report.toString();
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.android.newsapp_2.testing;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local HTTP server which answers like the "/search" endpoint of the Guardian API, so the
+ * fetch path can be tested without the network. The pages come from a {@link GuardianFixture}
+ * and honour "q", "order-by", "page", "page-size" and "show-fields". Like the real API it sends
+ * an ETag, answers a matching If-None-Match with 304 and compresses the body with gzip if the
+ * client accepts it.
+ * <p>
+ * Faults can be injected while the server runs: a latency before the response, a part of the
+ * requests which fail with an error code or break off in the middle of the body, and a slow
+ * body which trickles in small chunks. The faults are chosen with a seeded random, so a run
+ * can be repeated.
+ */
+
+public final class MockGuardianServer implements Closeable {
+
+    public static final String SEARCH_PATH = "/search";
+
+    private static final String PARAM_QUERY = "q";
+    private static final String PARAM_ORDER_BY = "order-by";
+    private static final String PARAM_PAGE = "page";
+    private static final String PARAM_PAGE_SIZE = "page-size";
+    private static final String PARAM_SHOW_FIELDS = "show-fields";
+    private static final String PARAM_API_KEY = "api-key";
+    private static final String DEFAULT_FIELDS = "byline,thumbnail";
+    private static final String TEST_API_KEY = "test";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    //The real API doesn't return bigger pages.
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+    //Content length of sendResponseHeaders for a response without a body.
+    private static final int NO_BODY = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String CHARSET_NAME = "UTF-8";
+    private static final String ENCODING_GZIP = "gzip";
+
+    private final HttpServer mServer;
+    private final ExecutorService mExecutor;
+    private final AtomicLong mRequestCount = new AtomicLong();
+
+    private volatile GuardianFixture mFixture;
+    private volatile long mLatencyMillis;
+    private volatile double mErrorRate;
+    private volatile int mErrorCode = HTTP_SERVICE_UNAVAILABLE;
+    private volatile int mRetryAfterSeconds;
+    private volatile double mDisconnectRate;
+    private volatile int mTrickleBytes;
+    private volatile long mTricklePeriodMillis;
+    //Random is thread safe, the faults of concurrent requests still depend on their order.
+    private volatile Random mRandom = new Random(0);
+
+    /**
+     * Create a server for the fixture on a free port of the loopback interface. It answers up
+     * to threads requests at the same time.
+     */
+    public MockGuardianServer(GuardianFixture fixture, int threads) throws IOException {
+        mFixture = fixture;
+        mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                threads);
+        mServer.createContext("/", new Handler());
+        mExecutor = Executors.newFixedThreadPool(threads);
+        mServer.setExecutor(mExecutor);
+    }
+
+    public void start() {
+        mServer.start();
+    }
+
+    //Stop the server, requests which are still answered are dropped.
+    @Override
+    public void close() {
+        mServer.stop(0);
+        mExecutor.shutdownNow();
+    }
+
+    public void setFixture(GuardianFixture fixture) {
+        mFixture = fixture;
+    }
+
+    //Wait this long before every response is sent.
+    public void setLatency(long latency, TimeUnit unit) {
+        mLatencyMillis = unit.toMillis(latency);
+    }
+
+    /**
+     * Fail this part of the requests, between 0 and 1, with the response code. A 429 or 503 gets
+     * a Retry-After header if retryAfterSeconds is positive.
+     */
+    public void setErrors(double rate, int responseCode, int retryAfterSeconds) {
+        mErrorCode = responseCode;
+        mRetryAfterSeconds = retryAfterSeconds;
+        mErrorRate = rate;
+    }
+
+    //Break off this part of the responses, between 0 and 1, in the middle of the body.
+    public void setDisconnectRate(double rate) {
+        mDisconnectRate = rate;
+    }
+
+    //Send the body in chunks of the size, one per period. Zero bytes send it at once.
+    public void setTrickle(int bytes, long period, TimeUnit unit) {
+        mTricklePeriodMillis = unit.toMillis(period);
+        mTrickleBytes = bytes;
+    }
+
+    //Start the random choice of the faults again with the seed.
+    public void setSeed(long seed) {
+        mRandom = new Random(seed);
+    }
+
+    public long getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * Return the URL of a page of the query, newest first with the fields of the app.
+     */
+    public String url(String query, int page, int pageSize) {
+        return url(query, GuardianFixture.ORDER_NEWEST, page, pageSize, DEFAULT_FIELDS);
+    }
+
+    public String url(String query, String orderBy, int page, int pageSize, String showFields) {
+        InetSocketAddress address = mServer.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort()
+                + SEARCH_PATH + "?" + PARAM_QUERY + "=" + encode(query)
+                + "&" + PARAM_SHOW_FIELDS + "=" + encode(showFields)
+                + "&" + PARAM_ORDER_BY + "=" + encode(orderBy)
+                + "&" + PARAM_PAGE_SIZE + "=" + pageSize
+                + "&" + PARAM_PAGE + "=" + page
+                + "&" + PARAM_API_KEY + "=" + TEST_API_KEY;
+    }
+
+    private final class Handler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            mRequestCount.incrementAndGet();
+            try {
+                sleep(mLatencyMillis);
+                respond(exchange);
+            } catch (InterruptedException e) {
+                // The server is stopped.
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private void respond(HttpExchange exchange) throws IOException, InterruptedException {
+            if (!SEARCH_PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(HTTP_NOT_FOUND, NO_BODY);
+                return;
+            }
+
+            if (mErrorRate > 0 && mRandom.nextDouble() < mErrorRate) {
+                int code = mErrorCode;
+                if ((code == HTTP_TOO_MANY_REQUESTS || code == HTTP_SERVICE_UNAVAILABLE)
+                        && mRetryAfterSeconds > 0) {
+                    exchange.getResponseHeaders().set("Retry-After",
+                            String.valueOf(mRetryAfterSeconds));
+                }
+                exchange.sendResponseHeaders(code, NO_BODY);
+                return;
+            }
+
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            GuardianFixture fixture = mFixture;
+            int page = parseInt(params.get(PARAM_PAGE), 1);
+            int pageSize = Math.min(parseInt(params.get(PARAM_PAGE_SIZE), DEFAULT_PAGE_SIZE),
+                    MAX_PAGE_SIZE);
+            if (page < 1 || pageSize < 1 || page > Math.max(1, fixture.getPages(pageSize))) {
+                send(exchange, HTTP_BAD_REQUEST, GuardianFixture.errorResponse(
+                        "requested page is beyond the number of available pages"));
+                return;
+            }
+
+            String body = fixture.response(params.get(PARAM_QUERY),
+                    params.get(PARAM_ORDER_BY), page, pageSize, params.get(PARAM_SHOW_FIELDS));
+            String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(HTTP_NOT_MODIFIED, NO_BODY);
+                return;
+            }
+            send(exchange, HTTP_OK, body);
+        }
+
+        private void send(HttpExchange exchange, int code, String body)
+                throws IOException, InterruptedException {
+            byte[] bytes = body.getBytes(UTF_8);
+            Headers requestHeaders = exchange.getRequestHeaders();
+            String acceptEncoding = requestHeaders.getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains(ENCODING_GZIP)) {
+                bytes = gzip(bytes);
+                exchange.getResponseHeaders().set("Content-Encoding", ENCODING_GZIP);
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+
+            // The length is announced in full, so a broken off body is a premature end.
+            boolean disconnect = mDisconnectRate > 0 && mRandom.nextDouble() < mDisconnectRate;
+            int length = disconnect ? bytes.length / 2 : bytes.length;
+            exchange.sendResponseHeaders(code, bytes.length);
+            OutputStream output = exchange.getResponseBody();
+            int chunk = mTrickleBytes > 0 ? mTrickleBytes : length;
+            for (int offset = 0; offset < length; offset += chunk) {
+                output.write(bytes, offset, Math.min(chunk, length - offset));
+                if (mTrickleBytes > 0) {
+                    output.flush();
+                    sleep(mTricklePeriodMillis);
+                }
+            }
+            if (!disconnect) {
+                output.close();
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        gzip.write(bytes);
+        gzip.close();
+        return compressed.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(decode(pair.substring(0, separator)),
+                        decode(pair.substring(separator + 1)));
+            }
+        }
+        return params;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, CHARSET_NAME);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, CHARSET_NAME);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
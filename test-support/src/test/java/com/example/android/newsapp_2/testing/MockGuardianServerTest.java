@@ -0,0 +1,115 @@
+package com.example.android.newsapp_2.testing;
+
+import com.example.android.newsapp_2.core.FetchCancellation;
+import com.example.android.newsapp_2.core.FetchException;
+import com.example.android.newsapp_2.core.News;
+import com.example.android.newsapp_2.core.QueryUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Local unit tests which fetch the pages of the {@link MockGuardianServer} with
+ * {@link QueryUtils} and run the {@link LoadHarness} against it.
+ */
+public class MockGuardianServerTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private MockGuardianServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGuardianServer(new GuardianFixture(25), 8);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void pages_fitTogetherNewestFirst() throws FetchException {
+        List<News> newsList = new ArrayList<>();
+        for (int page = 1; page <= 3; page++) {
+            newsList.addAll(QueryUtils.fetchNews(server.url("pages", page, PAGE_SIZE),
+                    new FetchCancellation()));
+        }
+
+        assertEquals(25, newsList.size());
+        for (int i = 1; i < newsList.size(); i++) {
+            assertTrue(newsList.get(i - 1).getTimeInMillis() > newsList.get(i).getTimeInMillis());
+        }
+        assertEquals("Reporter 0", newsList.get(0).getAuthor());
+    }
+
+    @Test
+    public void pageBeyondLastPage_isHttpError() {
+        try {
+            QueryUtils.fetchNews(server.url("beyond", 4, PAGE_SIZE), new FetchCancellation());
+            fail();
+        } catch (FetchException e) {
+            assertEquals(FetchException.Kind.HTTP_ERROR, e.getKind());
+        }
+    }
+
+    @Test
+    public void injectedError_failsWithItsKind() {
+        server.setErrors(1, 503, 0);
+        try {
+            QueryUtils.fetchNews(server.url("errors", 1, PAGE_SIZE), new FetchCancellation());
+            fail();
+        } catch (FetchException e) {
+            assertEquals(FetchException.Kind.SERVER_ERROR, e.getKind());
+        }
+    }
+
+    @Test
+    public void brokenOffBody_failsWithRetryableNetworkError() {
+        server.setDisconnectRate(1);
+
+        try {
+            QueryUtils.fetchNews(server.url("broken", 1, PAGE_SIZE), new FetchCancellation());
+            fail("The broken off body was accepted");
+        } catch (FetchException e) {
+            assertEquals(FetchException.Kind.NETWORK, e.getKind());
+            assertTrue(e.getKind().isRetryable());
+        }
+    }
+
+    @Test
+    public void trickledBody_isParsedCompletely() throws FetchException {
+        server.setTrickle(256, 1, TimeUnit.MILLISECONDS);
+
+        List<News> newsList = QueryUtils.fetchNews(server.url("trickle", 1, PAGE_SIZE),
+                new FetchCancellation());
+
+        assertEquals(PAGE_SIZE, newsList.size());
+    }
+
+    @Test
+    public void loadHarness_reportsEveryCycle() throws Exception {
+        server.setErrors(0.1, 503, 0);
+        List<String> urls = Arrays.asList(server.url("load", 1, PAGE_SIZE),
+                server.url("load", 2, PAGE_SIZE), server.url("load", 3, PAGE_SIZE));
+
+        LoadReport report = new LoadHarness(urls, 8).run(300);
+
+        assertEquals(300, report.getLatencies().getCount());
+        assertEquals(report.getFailures(), report.getFailures(FetchException.Kind.SERVER_ERROR));
+        assertTrue(report.getFailures() > 0 && report.getFailures() < 100);
+        assertTrue(report.getNewsCount() > 0);
+        assertTrue(report.getThroughput() > 0);
+    }
+}